@@ -0,0 +1,89 @@
+package net.white.azalea.utils.database;
+
+import net.white.azalea.utils.database.converters.H2ColumnConverter;
+import net.white.azalea.utils.database.impl.TsvDataSource;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full load into in-memory H2 by insert mode.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TableInserterBenchmark {
+
+    @Param({"1000", "10000"})
+    public int rows;
+
+    @Param({"insert", "insertBatch", "insertMultiRow"})
+    public String mode;
+
+    private Connection connection;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Class.forName("org.h2.Driver");
+        this.connection = DriverManager.getConnection("jdbc:h2:mem:benchmark", "sa", "");
+        try (Statement statement = this.connection.createStatement()) {
+            statement.execute("CREATE TABLE BENCH_INSERT (" +
+                    "id BIGINT AUTO_INCREMENT, " +
+                    "Column1 VARCHAR(32), " +
+                    "Column2 INTEGER, " +
+                    "Column3 DECIMAL(10,2), " +
+                    "Column4 DOUBLE, " +
+                    "Column5 DATE, " +
+                    "Column6 TIMESTAMP, " +
+                    "PRIMARY KEY(id)" +
+                    ")");
+        }
+
+        this.file = Files.createTempFile("TableInserterBenchmark", ".tsv");
+        try (BufferedWriter writer = Files.newBufferedWriter(this.file, StandardCharsets.UTF_8)) {
+            writer.write("Column1\tColumn2\tColumn3\tColumn4\tColumn5\tColumn6");
+            writer.newLine();
+            for (int r = 0; r < this.rows; r++) {
+                writer.write("line" + r + "\t" + r + "\t62.19\t3.1415\t2019/02/01\t2019/02/25 13:11:22");
+                writer.newLine();
+            }
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void truncate() throws SQLException {
+        try (Statement statement = this.connection.createStatement()) {
+            statement.execute("TRUNCATE TABLE BENCH_INSERT");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        this.connection.close();
+        Files.delete(this.file);
+    }
+
+    @Benchmark
+    public Object load() throws SQLException, IOException {
+        TableInserter inserter = new TableInserter(this.connection, "");
+        DataSource source = new TsvDataSource(this.file, "UTF-8");
+        switch (this.mode) {
+            case "insertBatch":
+                return inserter.insertBatch("BENCH_INSERT", source, new H2ColumnConverter(), 1000);
+            case "insertMultiRow":
+                return inserter.insertMultiRow("BENCH_INSERT", source, new H2ColumnConverter(), 1000);
+            default:
+                return inserter.insert("BENCH_INSERT", source, new H2ColumnConverter());
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package net.white.azalea.utils.database.converters;
+
+import net.white.azalea.utils.database.ValueConverter;
+import net.white.azalea.utils.database.schema.ColumnDefinition;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.sql.Types;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Column conversion by JDBC type.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class H2ColumnConverterBenchmark {
+
+    @Param({"INTEGER", "BIGINT", "BOOLEAN", "DECIMAL", "DOUBLE", "VARCHAR", "VARBINARY", "TIME", "DATE", "TIMESTAMP"})
+    public String type;
+
+    private H2ColumnConverter converter;
+    private ColumnDefinition column;
+    private ValueConverter valueConverter;
+    private String value;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        this.converter = new H2ColumnConverter();
+        switch (this.type) {
+            case "INTEGER": this.setUp(Types.INTEGER, "65535"); break;
+            case "BIGINT": this.setUp(Types.BIGINT, "9223372036854775807"); break;
+            case "BOOLEAN": this.setUp(Types.BOOLEAN, "true"); break;
+            case "DECIMAL": this.setUp(Types.DECIMAL, "62.19"); break;
+            case "DOUBLE": this.setUp(Types.DOUBLE, "3.1415"); break;
+            case "VARCHAR": this.setUp(Types.VARCHAR, "charColumn1"); break;
+            case "VARBINARY": this.setUp(Types.VARBINARY, "0123456789abcdef"); break;
+            case "TIME": this.setUp(Types.TIME, "13:54:22"); break;
+            case "DATE": this.setUp(Types.DATE, "2019/02/01"); break;
+            case "TIMESTAMP": this.setUp(Types.TIMESTAMP, "2019/02/25 13:11:22"); break;
+            default: throw new IllegalArgumentException(this.type);
+        }
+    }
+
+    private void setUp(int dataType, String value) throws IOException {
+        this.column = new ColumnDefinition("column", this.type, dataType, 0);
+        this.valueConverter = this.converter.converterFor(this.column);
+        this.value = value;
+    }
+
+    @Benchmark
+    public Object conversion() throws IOException {
+        return this.converter.conversion(this.column.dataType, this.column.columnType, this.value);
+    }
+
+    @Benchmark
+    public Object converterFor() throws IOException {
+        return this.valueConverter.convert(this.value);
+    }
+}
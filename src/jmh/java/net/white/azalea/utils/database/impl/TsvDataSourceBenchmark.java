@@ -0,0 +1,68 @@
+package net.white.azalea.utils.database.impl;
+
+import net.white.azalea.utils.database.DataCursor;
+import net.white.azalea.utils.database.Row;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TSV parsing by row count and column count.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TsvDataSourceBenchmark {
+
+    @Param({"1000", "100000"})
+    public int rows;
+
+    @Param({"4", "32"})
+    public int columns;
+
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        this.file = Files.createTempFile("TsvDataSourceBenchmark", ".tsv");
+        try (BufferedWriter writer = Files.newBufferedWriter(this.file, StandardCharsets.UTF_8)) {
+            for (int c = 0; c < this.columns; c++) {
+                writer.write((c == 0 ? "" : "\t") + "column" + c);
+            }
+            writer.newLine();
+            for (int r = 0; r < this.rows; r++) {
+                for (int c = 0; c < this.columns; c++) {
+                    writer.write((c == 0 ? "" : "\t") + "value" + r + "_" + c);
+                }
+                writer.newLine();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.delete(this.file);
+    }
+
+    @Benchmark
+    public List<Map<String, String>> loadDataSource() throws IOException {
+        return new TsvDataSource(this.file, "UTF-8").loadDataSource();
+    }
+
+    @Benchmark
+    public void openRowCursor(Blackhole blackhole) throws IOException {
+        try (DataCursor<Row> cursor = new TsvDataSource(this.file, "UTF-8").openRowCursor()) {
+            while (cursor.hasNext()) {
+                blackhole.consume(cursor.next());
+            }
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package net.white.azalea.utils.database;
+
+import net.white.azalea.utils.database.schema.TableDefinition;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.reflect.InvocationTargetException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Start table loads without blocking the calling thread.
+ *
+ * Each load runs on given executor with own connection from {@link ConnectionSupplier},
+ * and returned future completes with batch results.
+ * Progress is reported to {@link LoadListener} on the loading thread.
+ *
+ * Cancel of returned future stops the load before next row:
+ * rows not executed yet are discarded, transaction is rolled back if connection is not auto commit,
+ * and connection is closed. Loading thread is not interrupted, because some drivers close connection on interrupt.
+ *
+ * @author S.Yoshii
+ */
+public final class AsyncTableInserter {
+
+    private static final AtomicInteger COUNT = new AtomicInteger();
+
+    private final ConnectionSupplier connections;
+    private final String schema;
+    private final TableSchemaCache tableSchemaCache;
+    private final LoadListener listener;
+    private final Executor executor;
+
+    /**
+     * @param connections connection source. called once per load.
+     * @param schemaName  database schema name.
+     * @param executor    executor that runs loads. see {@link #newExecutor()}.
+     */
+    public AsyncTableInserter(ConnectionSupplier connections, String schemaName, Executor executor) {
+        this(connections, schemaName, TableSchemaCache.getInstance(), LoadListener.NONE, executor);
+    }
+
+    /**
+     * @param connections      connection source. called once per load.
+     * @param schemaName       database schema name.
+     * @param tableSchemaCache table schema cache.
+     * @param listener         load listener that receives progress. must be thread safe.
+     * @param executor         executor that runs loads. see {@link #newExecutor()}.
+     */
+    public AsyncTableInserter(
+            ConnectionSupplier connections,
+            String schemaName,
+            TableSchemaCache tableSchemaCache,
+            LoadListener listener,
+            Executor executor) {
+        this.connections = connections;
+        this.schema = schemaName;
+        this.tableSchemaCache = tableSchemaCache;
+        this.listener = listener;
+        this.executor = executor;
+    }
+
+    /**
+     * Create executor for loads.
+     *
+     * Virtual thread per task on Java 21 or later, otherwise cached daemon threads.
+     * Caller shuts it down.
+     *
+     * @return executor.
+     */
+    public static ExecutorService newExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            // before Java 21.
+            return Executors.newCachedThreadPool(r -> {
+                Thread thread = new Thread(r, "tsv-inserter-async-" + COUNT.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Start batched Insert.
+     *
+     * @param tableName target table name.
+     * @param source    data source. used only by the load.
+     * @param binder    data conversion adapter. must be thread safe.
+     * @param batchSize max rows in one JDBC batch.
+     * @return future of executed batch results.
+     * @see TableInserter#insertBatch(String, DataSource, ColumnConverter, int)
+     */
+    public LoadFuture<List<BatchResult>> insertBatch(
+            String tableName,
+            DataSource source,
+            ColumnConverter binder,
+            int batchSize
+    ) {
+        return this.submit(tableName, source, (inserter, src) -> inserter.insertBatch(tableName, src, binder, batchSize));
+    }
+
+    /**
+     * Start batched Insert with row handler.
+     *
+     * @param tableName target table name.
+     * @param source    data source. used only by the load.
+     * @param binder    data conversion adapter. must be thread safe.
+     * @param prepare   event handler that call before add row to batch. called on loading thread.
+     * @param batchSize max rows in one JDBC batch.
+     * @return future of executed batch results.
+     * @see TableInserter#insertBatch(String, DataSource, ColumnConverter, TableInserter.RowFunction, int)
+     */
+    public LoadFuture<List<BatchResult>> insertBatch(
+            String tableName,
+            DataSource source,
+            ColumnConverter binder,
+            TableInserter.RowFunction prepare,
+            int batchSize
+    ) {
+        return this.submit(tableName, source,
+                (inserter, src) -> inserter.insertBatch(tableName, src, binder, prepare, batchSize));
+    }
+
+    /**
+     * Start multi row Insert.
+     *
+     * @param tableName         target table name.
+     * @param source            data source. used only by the load.
+     * @param binder            data conversion adapter. must be thread safe.
+     * @param maxBindParameters max bind parameters in one statement.
+     * @return future of executed statement results.
+     * @see TableInserter#insertMultiRow(String, DataSource, ColumnConverter, int)
+     */
+    public LoadFuture<List<BatchResult>> insertMultiRow(
+            String tableName,
+            DataSource source,
+            ColumnConverter binder,
+            int maxBindParameters
+    ) {
+        return this.submit(tableName, source,
+                (inserter, src) -> inserter.insertMultiRow(tableName, src, binder, maxBindParameters));
+    }
+
+    private <T> LoadFuture<T> submit(String tableName, DataSource source, Load<T> load) {
+        LoadFuture<T> future = new LoadFuture<>(tableName);
+        try {
+            this.executor.execute(() -> this.run(future, source, load));
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+            future.stopped.complete(null);
+        }
+        return future;
+    }
+
+    private <T> void run(LoadFuture<T> future, DataSource source, Load<T> load) {
+        try {
+            if (future.isDone()) return;
+
+            try (Connection connection = this.connections.get()) {
+                boolean autoCommit = connection.getAutoCommit();
+                try {
+                    TableInserter inserter =
+                            new TableInserter(connection, this.schema, this.tableSchemaCache, this.listener);
+                    T result = load.run(inserter, cancellable(source, future));
+                    if (!autoCommit) connection.commit();
+                    future.complete(result);
+                } catch (SQLException | IOException | RuntimeException | Error e) {
+                    if (!autoCommit) {
+                        try {
+                            connection.rollback();
+                        } catch (SQLException re) {
+                            e.addSuppressed(re);
+                        }
+                    }
+                    throw e;
+                }
+            }
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+        } finally {
+            future.stopped.complete(null);
+        }
+    }
+
+    /**
+     * Wrap source to stop reading when load is cancelled.
+     */
+    private static DataSource cancellable(DataSource source, LoadFuture<?> future) {
+        if (source instanceof ConvertedDataSource) {
+            return new CancellableConvertedSource((ConvertedDataSource) source, future);
+        }
+        return new CancellableSource(source, future);
+    }
+
+    /**
+     * Future of one table load.
+     *
+     * @param <T> result type.
+     */
+    public static final class LoadFuture<T> extends CompletableFuture<T> {
+
+        /**
+         * Target table name.
+         */
+        public final String table;
+
+        private final CompletableFuture<Void> stopped = new CompletableFuture<>();
+
+        private LoadFuture(String table) {
+            this.table = table;
+        }
+
+        /**
+         * Future that completes when loading thread released connection,
+         * after success, failure or cancel.
+         *
+         * @return stopped future.
+         */
+        public CompletableFuture<Void> stopped() {
+            return this.stopped;
+        }
+
+        /**
+         * Check for cancel on loading thread.
+         *
+         * @throws InterruptedIOException if cancelled.
+         */
+        private void check() throws InterruptedIOException {
+            if (this.isCancelled()) throw new InterruptedIOException("Load cancelled: " + this.table);
+        }
+    }
+
+    /**
+     * Load run on executor.
+     */
+    private interface Load<T> {
+        T run(TableInserter inserter, DataSource source) throws SQLException, IOException;
+    }
+
+    /**
+     * Source that checks cancel before each row.
+     */
+    private static class CancellableSource implements DataSource {
+
+        final DataSource source;
+        final LoadFuture<?> future;
+
+        CancellableSource(DataSource source, LoadFuture<?> future) {
+            this.source = source;
+            this.future = future;
+        }
+
+        @Override
+        public List<Map<String, String>> loadDataSource() throws IOException {
+            this.future.check();
+            return this.source.loadDataSource();
+        }
+
+        @Override
+        public DataCursor<Map<String, String>> openCursor() throws IOException {
+            this.future.check();
+            return new CancellableCursor<>(this.source.openCursor(), this.future);
+        }
+
+        @Override
+        public DataCursor<Row> openRowCursor() throws IOException {
+            this.future.check();
+            return new CancellableCursor<>(this.source.openRowCursor(), this.future);
+        }
+    }
+
+    private static final class CancellableConvertedSource extends CancellableSource implements ConvertedDataSource {
+
+        CancellableConvertedSource(ConvertedDataSource source, LoadFuture<?> future) {
+            super(source, future);
+        }
+
+        @Override
+        public Cursor openValueCursor(TableDefinition tableDef, ColumnConverter binder) throws IOException {
+            this.future.check();
+            final Cursor cursor = ((ConvertedDataSource) this.source).openValueCursor(tableDef, binder);
+            return new Cursor() {
+                @Override
+                public RowHeader header() {
+                    return cursor.header();
+                }
+
+                @Override
+                public boolean hasNext() throws IOException {
+                    future.check();
+                    return cursor.hasNext();
+                }
+
+                @Override
+                public Object[] next() throws IOException {
+                    return cursor.next();
+                }
+
+                @Override
+                public long bytesRead() {
+                    return cursor.bytesRead();
+                }
+
+                @Override
+                public void close() throws IOException {
+                    cursor.close();
+                }
+            };
+        }
+    }
+
+    private static final class CancellableCursor<T> implements DataCursor<T> {
+
+        private final DataCursor<T> cursor;
+        private final LoadFuture<?> future;
+
+        private CancellableCursor(DataCursor<T> cursor, LoadFuture<?> future) {
+            this.cursor = cursor;
+            this.future = future;
+        }
+
+        @Override
+        public boolean hasNext() throws IOException {
+            this.future.check();
+            return this.cursor.hasNext();
+        }
+
+        @Override
+        public T next() throws IOException {
+            return this.cursor.next();
+        }
+
+        @Override
+        public long bytesRead() {
+            return this.cursor.bytesRead();
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.cursor.close();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package net.white.azalea.utils.database;
+
+import java.sql.Statement;
+
+/**
+ * Result of one executed JDBC batch.
+ *
+ * @author S.Yoshii
+ */
+public class BatchResult {
+
+    /**
+     * Executed insert sql.
+     */
+    public final String sql;
+
+    /**
+     * Update counts that returned from {@link Statement#executeBatch()}.
+     */
+    public final int[] updateCounts;
+
+    public BatchResult(final String sql, final int[] updateCounts) {
+        this.sql = sql;
+        this.updateCounts = updateCounts;
+    }
+
+    /**
+     * Sum of update counts.
+     *
+     * {@link Statement#SUCCESS_NO_INFO} is counted as one row,
+     * {@link Statement#EXECUTE_FAILED} is not counted.
+     *
+     * @return affected row count.
+     */
+    public int affectedRows() {
+        int total = 0;
+        for (int count : this.updateCounts) {
+            if (count >= 0) {
+                total += count;
+            } else if (count == Statement.SUCCESS_NO_INFO) {
+                total++;
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,163 @@
+package net.white.azalea.utils.database;
+
+import java.sql.*;
+import java.util.*;
+
+/**
+ * Write rows with JDBC batch.
+ *
+ * Rows of same plan share one PreparedStatement, and executed each {@code batchSize} rows.
+ * Open batch is executed when plan is changed, so rows are executed in written order.
+ * If key sink is given, generated keys are read once after each batch.
+ *
+ * @author S.Yoshii
+ */
+class BatchRowWriter implements RowWriter {
+
+    private final Connection connection;
+    private final int batchSize;
+    private final Map<InsertPlan, PendingBatch> batches = new IdentityHashMap<>();
+
+    /**
+     * Batch of last written row.
+     */
+    private PendingBatch last;
+    private final List<BatchResult> results = new ArrayList<>();
+    private final LoadRecorder recorder;
+
+    /**
+     * Generated key columns, or null or empty to let driver decide.
+     */
+    private final String[] keyColumns;
+
+    /**
+     * Receiver of generated keys, or null to not read keys.
+     */
+    private final TableInserter.ResultSink keys;
+
+    BatchRowWriter(Connection connection, int batchSize) {
+        this(connection, batchSize, LoadRecorder.NONE);
+    }
+
+    BatchRowWriter(Connection connection, int batchSize, LoadRecorder recorder) {
+        this(connection, batchSize, recorder, new String[0], null);
+    }
+
+    BatchRowWriter(
+            Connection connection,
+            int batchSize,
+            LoadRecorder recorder,
+            String[] keyColumns,
+            TableInserter.ResultSink keys) {
+        if (batchSize < 1) throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+        this.connection = connection;
+        this.batchSize = batchSize;
+        this.recorder = recorder;
+        this.keyColumns = keyColumns;
+        this.keys = keys;
+    }
+
+    @Override
+    public void write(InsertPlan plan, Object[] values) throws SQLException {
+        PendingBatch batch = this.batches.get(plan);
+        if (batch == null) {
+            batch = new PendingBatch(plan.sql, this.prepare(plan.sql));
+            this.batches.put(plan, batch);
+        }
+        if (batch != this.last) {
+            // column set is changed.
+            if (this.last != null && this.last.count > 0) {
+                this.results.add(this.execute(this.last));
+            }
+            this.last = batch;
+        }
+
+        long start = this.recorder.start();
+        plan.bind(batch.statement, 0, values);
+        batch.statement.addBatch();
+        this.recorder.bound(start);
+
+        if (++batch.count >= this.batchSize) {
+            this.results.add(this.execute(batch));
+        }
+    }
+
+    @Override
+    public void flush() throws SQLException {
+        // only last batch has rows.
+        if (this.last != null && this.last.count > 0) {
+            this.results.add(this.execute(this.last));
+        }
+    }
+
+    private PreparedStatement prepare(String sql) throws SQLException {
+        if (this.keys == null) return this.connection.prepareStatement(sql);
+        return this.keyColumns == null || this.keyColumns.length == 0
+                ? this.connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)
+                : this.connection.prepareStatement(sql, this.keyColumns);
+    }
+
+    private BatchResult execute(PendingBatch batch) throws SQLException {
+        int rows = batch.count;
+        long start = this.recorder.start();
+        BatchResult result = batch.execute();
+        this.recorder.executed(start, rows);
+
+        if (this.keys != null) this.readKeys(batch.statement);
+        return result;
+    }
+
+    /**
+     * Pass generated keys of executed batch to sink.
+     */
+    private void readKeys(PreparedStatement statement) throws SQLException {
+        try (ResultSet rs = statement.getGeneratedKeys()) {
+            if (rs == null) return;
+
+            ResultSetMetaData meta = rs.getMetaData();
+            String[] labels = new String[meta.getColumnCount()];
+            for (int i = 0; i < labels.length; i++) {
+                labels[i] = meta.getColumnLabel(i + 1).toLowerCase();
+            }
+            while (rs.next()) {
+                Map<String, Object> key = new HashMap<>(labels.length * 2);
+                for (int i = 0; i < labels.length; i++) {
+                    key.put(labels[i], rs.getObject(i + 1));
+                }
+                this.keys.accept(this.connection, key);
+            }
+        }
+    }
+
+    @Override
+    public List<BatchResult> results() {
+        return this.results;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        for (PendingBatch batch : this.batches.values()) {
+            batch.statement.close();
+        }
+    }
+
+    /**
+     * Cached statement and count of added rows.
+     */
+    private static class PendingBatch {
+        private final String sql;
+        private final PreparedStatement statement;
+        private int count;
+
+        private PendingBatch(String sql, PreparedStatement statement) {
+            this.sql = sql;
+            this.statement = statement;
+        }
+
+        private BatchResult execute() throws SQLException {
+            int[] counts = this.statement.executeBatch();
+            this.count = 0;
+            return new BatchResult(this.sql, counts);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package net.white.azalea.utils.database;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.*;
+import java.util.Properties;
+
+/**
+ * Committed position of resumable load.
+ *
+ * @author S.Yoshii
+ */
+public final class Checkpoint {
+
+    /**
+     * Identity of data source. see {@link ResumableDataSource#identity()}.
+     */
+    public final String source;
+
+    /**
+     * Target table name.
+     */
+    public final String table;
+
+    /**
+     * Count of committed rows.
+     */
+    public final long rowIndex;
+
+    /**
+     * Byte offset of next row, or -1 if data source cannot seek.
+     */
+    public final long offset;
+
+    public Checkpoint(String source, String table, long rowIndex, long offset) {
+        this.source = source;
+        this.table = table;
+        this.rowIndex = rowIndex;
+        this.offset = offset;
+    }
+
+    /**
+     * Read checkpoint file.
+     *
+     * @param path checkpoint file path.
+     * @return checkpoint, or null if file not exists.
+     * @throws IOException if cannot read file or file is broken.
+     */
+    public static Checkpoint read(Path path) throws IOException {
+        if (!Files.exists(path)) return null;
+
+        Properties props = new Properties();
+        try (InputStream in = Files.newInputStream(path)) {
+            props.load(in);
+        }
+        try {
+            return new Checkpoint(
+                    props.getProperty("source"),
+                    props.getProperty("table"),
+                    Long.parseLong(props.getProperty("rowIndex")),
+                    Long.parseLong(props.getProperty("offset")));
+        } catch (NumberFormatException e) {
+            throw new IOException("Broken checkpoint file: " + path, e);
+        }
+    }
+
+    /**
+     * Write checkpoint file.
+     *
+     * File is replaced atomically if file system supports it, so broken file is never left.
+     *
+     * @param path checkpoint file path.
+     * @throws IOException if cannot write file.
+     */
+    public void write(Path path) throws IOException {
+        Properties props = new Properties();
+        props.setProperty("source", this.source);
+        props.setProperty("table", this.table);
+        props.setProperty("rowIndex", Long.toString(this.rowIndex));
+        props.setProperty("offset", Long.toString(this.offset));
+
+        Path absolute = path.toAbsolutePath();
+        Path temp = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            props.store(out, null);
+        }
+        try {
+            Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Check checkpoint belongs to the load.
+     *
+     * @param source identity of data source.
+     * @param table  target table name.
+     * @return true if same data source and table.
+     */
+    public boolean matches(String source, String table) {
+        return this.source.equals(source) && this.table.equalsIgnoreCase(table);
+    }
+
+    @Override
+    public String toString() {
+        return "Checkpoint{source=" + this.source + ", table=" + this.table
+                + ", rowIndex=" + this.rowIndex + ", offset=" + this.offset + "}";
+    }
+}
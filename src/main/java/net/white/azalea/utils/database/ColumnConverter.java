@@ -1,5 +1,7 @@
 package net.white.azalea.utils.database;
 
+import net.white.azalea.utils.database.schema.ColumnDefinition;
+
 import java.io.IOException;
 
 /**
@@ -18,6 +20,36 @@ public interface ColumnConverter {
      */
     Object conversion(int dataType, String columnType, String value) throws IOException;
 
+    /**
+     * Resolve converter for column.
+     *
+     * Called once per column before insertion.
+     * Override this to skip type dispatch of {@link #conversion(int, String, String)} for each value.
+     *
+     * @param column target column definition.
+     * @return converter for the column.
+     * @throws IOException if column type is not supported.
+     */
+    default ValueConverter converterFor(ColumnDefinition column) throws IOException {
+        final int dataType = column.dataType;
+        final String columnType = column.columnType;
+        return value -> this.conversion(dataType, columnType, value);
+    }
+
+    /**
+     * Check converted values of column can be reused for same text.
+     *
+     * If true, converted value of each distinct text is cached while a table is loaded,
+     * until the column has too many distinct values.
+     * Override this to return true only for columns that conversion always returns same value for same text.
+     *
+     * @param column target column definition.
+     * @return true if cacheable. default is false.
+     */
+    default boolean cacheable(ColumnDefinition column) {
+        return false;
+    }
+
     /**
      * Column name wrapper.
      *
@@ -27,4 +59,16 @@ public interface ColumnConverter {
      * @return wrapped column name.
      */
     String columnNameWrapper(String columnName);
+
+    /**
+     * Settings that affect converted values.
+     *
+     * Used as a part of fixture cache key. Snapshots and compiled files are not used
+     * for converters that do not override this, because their settings are unknown.
+     *
+     * @return settings description, or null if unknown. default is null.
+     */
+    default String configuration() {
+        return null;
+    }
 }
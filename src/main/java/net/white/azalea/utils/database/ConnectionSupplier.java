@@ -0,0 +1,23 @@
+package net.white.azalea.utils.database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Source of database connections for multi thread loaders.
+ *
+ * Each call should return connection that is not used by other threads,
+ * like {@code DriverManager.getConnection} or connection pool.
+ *
+ * @author S.Yoshii
+ */
+public interface ConnectionSupplier {
+
+    /**
+     * Get connection. caller closes it.
+     *
+     * @return database connection.
+     * @throws SQLException if cannot connect.
+     */
+    Connection get() throws SQLException;
+}
@@ -0,0 +1,139 @@
+package net.white.azalea.utils.database;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.*;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Cache of converted values of one column.
+ *
+ * Each distinct text is converted once, and same value is returned for the text after that.
+ * Lookup is fast for texts that shared by {@link DataSource} dictionary, because they are same instance.
+ * Disabled when distinct texts exceed {@link #MAX_ENTRIES},
+ * or converter returns value that is not immutable ({@link Date} is copied instead).
+ *
+ * Safe to share between conversion threads. Lookup is lock free, and only new entries are synchronized.
+ *
+ * @author S.Yoshii
+ */
+final class ConversionCache implements ValueConverter {
+
+    /**
+     * Max distinct texts of one column.
+     */
+    static final int MAX_ENTRIES = 1024;
+
+    /**
+     * Max text length to cache.
+     */
+    static final int MAX_TEXT_LENGTH = 64;
+
+    /**
+     * Value types that can be shared between rows.
+     */
+    private static final Set<Class<?>> IMMUTABLE_TYPES = new HashSet<>(Arrays.asList(
+            String.class, Boolean.class, Character.class,
+            Byte.class, Short.class, Integer.class, Long.class, Float.class, Double.class,
+            BigDecimal.class, BigInteger.class, UUID.class,
+            LocalDate.class, LocalTime.class, LocalDateTime.class,
+            OffsetTime.class, OffsetDateTime.class, ZonedDateTime.class, Instant.class
+    ));
+
+    private final ValueConverter converter;
+
+    /**
+     * Open addressing table, or null if disabled.
+     */
+    private volatile Entry[] table = new Entry[64];
+    private int size;
+
+    ConversionCache(ValueConverter converter) {
+        this.converter = converter;
+    }
+
+    @Override
+    public Object convert(String value) throws IOException {
+        Entry[] t = this.table;
+        if (t == null || value == null || value.length() > MAX_TEXT_LENGTH) return this.converter.convert(value);
+
+        int hash = value.hashCode();
+        int mask = t.length - 1;
+        for (int i = spread(hash) & mask; t[i] != null; i = (i + 1) & mask) {
+            Entry e = t[i];
+            if (e.text == value || (e.hash == hash && e.text.equals(value))) {
+                return e.value instanceof Date ? ((Date) e.value).clone() : e.value;
+            }
+        }
+
+        Object converted = this.converter.convert(value);
+        this.put(new Entry(hash, value, converted instanceof Date ? ((Date) converted).clone() : converted));
+        return converted;
+    }
+
+    /**
+     * @return false if column has too many distinct texts or mutable values.
+     */
+    boolean isEnabled() {
+        return this.table != null;
+    }
+
+    private synchronized void put(Entry entry) {
+        Entry[] t = this.table;
+        if (t == null) return;
+        if (this.size >= MAX_ENTRIES || !cacheable(entry.value)) {
+            this.table = null;
+            return;
+        }
+
+        if ((this.size + 1) * 2 > t.length) {
+            Entry[] resized = new Entry[t.length * 2];
+            for (Entry e : t) {
+                if (e != null) insert(resized, e);
+            }
+            if (!insert(resized, entry)) return;
+            this.table = resized;
+        } else if (!insert(t, entry)) {
+            return;
+        }
+        this.size++;
+    }
+
+    /**
+     * @return false if same text is already registered.
+     */
+    private static boolean insert(Entry[] t, Entry entry) {
+        int mask = t.length - 1;
+        int i = spread(entry.hash) & mask;
+        for (; t[i] != null; i = (i + 1) & mask) {
+            if (t[i].hash == entry.hash && t[i].text.equals(entry.text)) return false;
+        }
+        t[i] = entry;
+        return true;
+    }
+
+    private static boolean cacheable(Object value) {
+        return value == null || value instanceof Date || IMMUTABLE_TYPES.contains(value.getClass());
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static final class Entry {
+        private final int hash;
+        private final String text;
+        private final Object value;
+
+        private Entry(int hash, String text, Object value) {
+            this.hash = hash;
+            this.text = text;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package net.white.azalea.utils.database;
+
+import net.white.azalea.utils.database.schema.TableDefinition;
+
+import java.io.IOException;
+
+/**
+ * Data source that has already converted values.
+ *
+ * {@link TableInserter} binds these values directly, without {@link ColumnConverter}.
+ *
+ * @author S.Yoshii
+ */
+public interface ConvertedDataSource extends DataSource {
+
+    /**
+     * Open cursor of converted values.
+     *
+     * Values must be same as values that {@code binder} returns for the table.
+     *
+     * @param tableDef target table definition.
+     * @param binder   data conversion adapter.
+     * @return value cursor. caller must close it.
+     * @throws IOException if cannot open or convert.
+     */
+    Cursor openValueCursor(TableDefinition tableDef, ColumnConverter binder) throws IOException;
+
+    /**
+     * Cursor of converted values in order of header.
+     */
+    interface Cursor extends DataCursor<Object[]> {
+
+        /**
+         * @return header of last returned values.
+         */
+        RowHeader header();
+    }
+}
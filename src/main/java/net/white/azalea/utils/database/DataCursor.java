@@ -0,0 +1,69 @@
+package net.white.azalea.utils.database;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Forward only cursor of data source rows.
+ *
+ * Cursor may hold file handle or other resources, so you must close it.
+ *
+ * @param <T> row type.
+ * @author S.Yoshii
+ */
+public interface DataCursor<T> extends Closeable {
+
+    /**
+     * Check for next row.
+     *
+     * @return true if next row exists.
+     * @throws IOException if cannot read data source.
+     */
+    boolean hasNext() throws IOException;
+
+    /**
+     * Read next row.
+     *
+     * @return next row.
+     * @throws IOException if cannot read data source.
+     * @throws NoSuchElementException if no more rows.
+     */
+    T next() throws IOException;
+
+    /**
+     * Bytes read from data source.
+     *
+     * @return bytes read so far, or -1 if unknown.
+     */
+    default long bytesRead() {
+        return -1;
+    }
+
+    /**
+     * Wrap loaded rows as cursor.
+     *
+     * @param iterator loaded rows.
+     * @param <T>      row type.
+     * @return cursor that iterate rows.
+     */
+    static <T> DataCursor<T> of(final Iterator<T> iterator) {
+        return new DataCursor<T>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public T next() {
+                return iterator.next();
+            }
+
+            @Override
+            public void close() {
+                // NOOP.
+            }
+        };
+    }
+}
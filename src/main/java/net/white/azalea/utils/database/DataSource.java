@@ -2,6 +2,8 @@ package net.white.azalea.utils.database;
 
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.List;
 import java.util.Map;
 
@@ -21,4 +23,86 @@ public interface DataSource {
      * @exception IOException if cannot load.
      */
     List<Map<String, String>> loadDataSource() throws IOException;
+
+    /**
+     * Open insertion data source cursor.
+     *
+     * Rows are read on demand, so implementations that override this method
+     * can load data source with bounded memory.
+     * Default implementation wraps {@link #loadDataSource()}.
+     *
+     * @return Column,Value Mapping data source cursor. caller must close it.
+     * @exception IOException if cannot open.
+     */
+    default DataCursor<Map<String, String>> openCursor() throws IOException {
+        return DataCursor.of(this.loadDataSource().iterator());
+    }
+
+    /**
+     * Open insertion data source cursor as index based rows.
+     *
+     * Implementations should override this to share one {@link RowHeader} between rows.
+     * Default implementation adapts {@link #openCursor()}.
+     *
+     * @return row cursor. caller must close it.
+     * @exception IOException if cannot open.
+     */
+    default DataCursor<Row> openRowCursor() throws IOException {
+        final DataCursor<Map<String, String>> maps = this.openCursor();
+        return new DataCursor<Row>() {
+            private RowHeader header;
+
+            @Override
+            public boolean hasNext() throws IOException {
+                return maps.hasNext();
+            }
+
+            @Override
+            public Row next() throws IOException {
+                Row row = Row.of(maps.next(), this.header);
+                this.header = row.header;
+                return row;
+            }
+
+            @Override
+            public void close() throws IOException {
+                maps.close();
+            }
+        };
+    }
+
+    /**
+     * Update digest with contents of this source.
+     *
+     * Used as fixture cache key.
+     * Default implementation reads all rows, implementations that can read raw contents should override this.
+     *
+     * @param digest digest to update.
+     * @exception IOException if cannot read.
+     */
+    default void digest(MessageDigest digest) throws IOException {
+        try (DataCursor<Row> cursor = this.openRowCursor()) {
+            RowHeader header = null;
+            while (cursor.hasNext()) {
+                Row row = cursor.next();
+                if (!row.header.equals(header)) {
+                    header = row.header;
+                    digest.update((byte) 2);
+                    for (int i = 0; i < header.size(); i++) {
+                        digest.update(header.name(i).getBytes(StandardCharsets.UTF_8));
+                        digest.update((byte) 0);
+                    }
+                }
+                digest.update((byte) 3);
+                for (String value : row.values) {
+                    if (value == null) {
+                        digest.update((byte) 1);
+                    } else {
+                        digest.update(value.getBytes(StandardCharsets.UTF_8));
+                        digest.update((byte) 0);
+                    }
+                }
+            }
+        }
+    }
 }
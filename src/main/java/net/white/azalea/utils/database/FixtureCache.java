@@ -0,0 +1,259 @@
+package net.white.azalea.utils.database;
+
+import net.white.azalea.utils.database.schema.ColumnDefinition;
+import net.white.azalea.utils.database.schema.TableDefinition;
+import org.apache.commons.codec.binary.Hex;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Table snapshot cache for test fixtures.
+ *
+ * Cache key is SHA-256 of data source contents, table definition and converter configuration.
+ * On first load, data source is inserted by {@link TableInserter} and table rows are written to snapshot file.
+ * On next load with same key, rows are restored from snapshot without parsing and conversion.
+ *
+ * Each load replaces all rows of the table, so table has just fixture rows after load.
+ * If converter configuration is unknown, data source is always inserted and no snapshot is written.
+ *
+ * @author S.Yoshii
+ */
+public final class FixtureCache {
+
+    /**
+     * Snapshot file format version. change this when format is changed.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * Rows in one JDBC batch.
+     */
+    private static final int BATCH_SIZE = 1000;
+
+    private final Connection connection;
+    private final String schema;
+    private final Path directory;
+    private final TableSchemaCache tableSchemaCache;
+
+    /**
+     * @param connection database connection.
+     * @param schemaName database schema name.
+     * @param directory  snapshot directory. created if not exists.
+     */
+    public FixtureCache(Connection connection, String schemaName, Path directory) {
+        this(connection, schemaName, directory, TableSchemaCache.getInstance());
+    }
+
+    /**
+     * @param connection       database connection.
+     * @param schemaName       database schema name.
+     * @param directory        snapshot directory. created if not exists.
+     * @param tableSchemaCache table schema cache.
+     */
+    public FixtureCache(Connection connection, String schemaName, Path directory, TableSchemaCache tableSchemaCache) {
+        this.connection = connection;
+        this.schema = schemaName;
+        this.directory = directory;
+        this.tableSchemaCache = tableSchemaCache;
+    }
+
+    /**
+     * Replace table rows with data source rows.
+     *
+     * @param tableName target table name.
+     * @param source    data source.
+     * @param binder    data conversion adapter.
+     * @return true if restored from snapshot, false if inserted from data source.
+     * @throws SQLException if cannot delete or insert.
+     * @throws IOException  if cannot read data source or snapshot, or cannot write snapshot.
+     */
+    public boolean load(String tableName, DataSource source, ColumnConverter binder) throws SQLException, IOException {
+        TableDefinition tableDef =
+                this.tableSchemaCache.getTableDefinition(this.connection, this.schema, tableName);
+        Path snapshot = binder.configuration() == null
+                ? null
+                : this.directory.resolve(tableName + "-" + key(tableDef, source, binder) + ".snapshot");
+
+        try (Statement st = this.connection.createStatement()) {
+            st.executeUpdate("DELETE FROM " + tableDef.tableName);
+        }
+
+        if (snapshot == null) {
+            new TableInserter(this.connection, this.schema, this.tableSchemaCache)
+                    .insertBatch(tableName, source, binder, BATCH_SIZE);
+            return false;
+        }
+        if (Files.exists(snapshot)) {
+            this.restore(tableDef, binder, snapshot);
+            return true;
+        }
+
+        new TableInserter(this.connection, this.schema, this.tableSchemaCache)
+                .insertBatch(tableName, source, binder, BATCH_SIZE);
+        this.capture(tableDef, binder, snapshot);
+        return false;
+    }
+
+    /**
+     * Delete all snapshot files.
+     *
+     * @throws IOException if cannot delete.
+     */
+    public void clear() throws IOException {
+        if (!Files.isDirectory(this.directory)) return;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(this.directory, "*.snapshot")) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * Content key of the load.
+     *
+     * Changed if data source contents, table definition or converter configuration is changed.
+     *
+     * @param tableDef target table definition.
+     * @param source   data source.
+     * @param binder   data conversion adapter.
+     * @return hex SHA-256.
+     * @throws IOException if cannot read data source.
+     * @throws IllegalArgumentException if converter configuration is unknown.
+     */
+    public static String key(TableDefinition tableDef, DataSource source, ColumnConverter binder) throws IOException {
+        String configuration = binder.configuration();
+        if (configuration == null) {
+            throw new IllegalArgumentException("Converter configuration is unknown: " + binder.getClass().getName());
+        }
+
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        StringBuilder header = new StringBuilder();
+        header.append(VERSION).append('\n');
+        header.append(tableDef.tableName).append('\n');
+        for (ColumnDefinition c : tableDef.columnDefinitions) {
+            header.append(c.columnName).append('\t').append(c.columnType).append('\t')
+                    .append(c.dataType).append('\t').append(c.columnSize).append('\n');
+        }
+        header.append(configuration).append('\n');
+        digest.update(header.toString().getBytes(StandardCharsets.UTF_8));
+
+        source.digest(digest);
+        return Hex.encodeHexString(digest.digest());
+    }
+
+    /**
+     * Write all table rows to snapshot.
+     *
+     * Snapshot is written to temporary file and moved, so broken snapshot is never left.
+     */
+    private void capture(TableDefinition tableDef, ColumnConverter binder, Path snapshot)
+            throws SQLException, IOException {
+        Files.createDirectories(this.directory);
+        Path temp = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+        try (Statement st = this.connection.createStatement();
+             ResultSet rs = st.executeQuery(this.selectSql(tableDef, binder));
+             ObjectOutputStream out = new ObjectOutputStream(
+                     new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(temp))))) {
+
+            int columns = tableDef.columnDefinitions.size();
+            out.writeInt(columns);
+            while (rs.next()) {
+                Object[] values = new Object[columns];
+                for (int i = 0; i < columns; i++) {
+                    values[i] = toSerializable(rs.getObject(i + 1));
+                }
+                out.writeObject(values);
+            }
+            // end of rows.
+            out.writeObject(null);
+        } catch (SQLException | IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        try {
+            Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Insert snapshot rows.
+     */
+    private void restore(TableDefinition tableDef, ColumnConverter binder, Path snapshot)
+            throws SQLException, IOException {
+        List<String> names = new ArrayList<>();
+        for (ColumnDefinition c : tableDef.columnDefinitions) {
+            names.add(binder.columnNameWrapper(c.columnName));
+        }
+        String sql = InsertPlan.toInsertSql(tableDef, names);
+
+        try (ObjectInputStream in = new ObjectInputStream(
+                new BufferedInputStream(new GZIPInputStream(Files.newInputStream(snapshot))));
+             PreparedStatement ps = this.connection.prepareStatement(sql)) {
+
+            int columns = in.readInt();
+            if (columns != names.size()) {
+                throw new IOException("Broken snapshot file: " + snapshot);
+            }
+
+            int rows = 0;
+            Object[] values;
+            while ((values = (Object[]) in.readObject()) != null) {
+                for (int i = 0; i < columns; i++) {
+                    InsertPlan.setObject(ps, i + 1, values[i], tableDef.columnDefinitions.get(i).dataType);
+                }
+                ps.addBatch();
+                if (++rows % BATCH_SIZE == 0) {
+                    ps.executeBatch();
+                }
+            }
+            if (rows % BATCH_SIZE != 0) {
+                ps.executeBatch();
+            }
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Broken snapshot file: " + snapshot, e);
+        }
+    }
+
+    private String selectSql(TableDefinition tableDef, ColumnConverter binder) {
+        StringJoiner select = new StringJoiner(", ");
+        for (ColumnDefinition c : tableDef.columnDefinitions) {
+            select.add(binder.columnNameWrapper(c.columnName));
+        }
+        return String.format("SELECT %s FROM %s", select, tableDef.tableName);
+    }
+
+    /**
+     * Read LOB values, they are valid only while result set is open.
+     */
+    private static Object toSerializable(Object value) throws SQLException {
+        if (value instanceof Blob) {
+            Blob blob = (Blob) value;
+            return blob.getBytes(1, (int) blob.length());
+        } else if (value instanceof Clob) {
+            Clob clob = (Clob) value;
+            return clob.getSubString(1, (int) clob.length());
+        } else if (value instanceof java.sql.Array) {
+            return ((java.sql.Array) value).getArray();
+        }
+        return value;
+    }
+}
@@ -0,0 +1,235 @@
+package net.white.azalea.utils.database;
+
+import net.white.azalea.utils.database.schema.ColumnDefinition;
+import net.white.azalea.utils.database.schema.TableDefinition;
+
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static java.sql.Types.*;
+
+/**
+ * Compiled insertion plan for one table and one column set.
+ *
+ * Column definitions, converters and JDBC setters are resolved once,
+ * so binding a row needs no column lookup.
+ *
+ * @author S.Yoshii
+ */
+final class InsertPlan {
+
+    /**
+     * Target table.
+     */
+    final TableDefinition table;
+
+    /**
+     * Source columns in bind order.
+     */
+    final RowHeader header;
+
+    /**
+     * Parameter slots in bind order.
+     */
+    final Slot[] slots;
+
+    /**
+     * Wrapped column names in bind order.
+     */
+    final List<String> columnNames;
+
+    /**
+     * Single row insert sql.
+     */
+    final String sql;
+
+    private InsertPlan(TableDefinition table, RowHeader header, Slot[] slots, List<String> columnNames) {
+        this(table, header, slots, columnNames, toInsertSql(table, columnNames));
+    }
+
+    private InsertPlan(TableDefinition table, RowHeader header, Slot[] slots, List<String> columnNames, String sql) {
+        this.table = table;
+        this.header = header;
+        this.slots = slots;
+        this.columnNames = columnNames;
+        this.sql = sql;
+    }
+
+    /**
+     * Compile plan.
+     *
+     * @param table  target table definition.
+     * @param binder data conversion adapter.
+     * @param header source columns in bind order.
+     * @return compiled plan.
+     * @throws IOException find undefined column name.
+     */
+    static InsertPlan compile(TableDefinition table, ColumnConverter binder, RowHeader header) throws IOException {
+        Map<String, ColumnDefinition> columns = new HashMap<>();
+        for (ColumnDefinition c : table.columnDefinitions) {
+            columns.put(c.columnName.toLowerCase(), c);
+        }
+
+        Slot[] slots = new Slot[header.size()];
+        List<String> columnNames = new ArrayList<>(header.size());
+        for (int i = 0; i < slots.length; i++) {
+            String key = header.name(i);
+            ColumnDefinition cdef = columns.get(key.toLowerCase());
+            if (cdef == null) {
+                throw new IOException("Unknown column definition: " + key);
+            }
+            ValueConverter converter = binder.converterFor(cdef);
+            if (binder.cacheable(cdef)) converter = new ConversionCache(converter);
+            slots[i] = new Slot(cdef, converter, setterFor(cdef.dataType));
+            columnNames.add(binder.columnNameWrapper(key));
+        }
+        return new InsertPlan(table, header, slots, Collections.unmodifiableList(columnNames));
+    }
+
+    /**
+     * Same plan with other statement, eg. UPDATE or DELETE that binds same parameters.
+     *
+     * @param sql statement that has parameters in bind order.
+     * @return new plan.
+     */
+    InsertPlan withSql(String sql) {
+        return new InsertPlan(this.table, this.header, this.slots, this.columnNames, sql);
+    }
+
+    /**
+     * Generate insert sql.
+     *
+     * @param tableDef    target table.
+     * @param columnNames wrapped column names.
+     * @return insert sql.
+     */
+    static String toInsertSql(TableDefinition tableDef, List<String> columnNames) {
+        return toInsertSql(tableDef, columnNames, 1);
+    }
+
+    /**
+     * Generate multi row insert sql.
+     *
+     * @param tableDef    target table.
+     * @param columnNames wrapped column names.
+     * @param rows        count of VALUES tuples.
+     * @return insert sql.
+     */
+    static String toInsertSql(TableDefinition tableDef, List<String> columnNames, int rows) {
+        String columnDef = String.join(", ", columnNames);
+        String binds = "(" + columnNames.stream().map(c -> "?").collect(Collectors.joining(",")) + ")";
+        StringJoiner values = new StringJoiner(", ");
+        for (int i = 0; i < rows; i++) {
+            values.add(binds);
+        }
+        return String.format(
+                "INSERT INTO %s (%s) VALUES %s",
+                tableDef.tableName, columnDef, values
+        );
+    }
+
+    /**
+     * Convert source row.
+     *
+     * @param src source row that has same header.
+     * @return converted values in bind order.
+     * @throws IOException conversion failed.
+     */
+    Object[] convert(Row src) throws IOException {
+        String[] strs = src.values;
+        Object[] values = new Object[this.slots.length];
+        for (int i = 0; i < this.slots.length; i++) {
+            values[i] = this.slots[i].converter.convert(strs[i]);
+        }
+        return values;
+    }
+
+    /**
+     * Bind converted values.
+     *
+     * @param ps     target statement.
+     * @param offset parameter index offset. 0 for first row.
+     * @param values converted values.
+     * @throws SQLException if cannot bind.
+     */
+    void bind(PreparedStatement ps, int offset, Object[] values) throws SQLException {
+        for (int i = 0; i < this.slots.length; i++) {
+            this.slots[i].setter.set(ps, offset + i + 1, values[i], this.slots[i].column.dataType);
+        }
+    }
+
+    /**
+     * Zip source keys and converted values.
+     *
+     * @param values converted values.
+     * @return key, value mapping.
+     */
+    Map<String, Object> toMap(Object[] values) {
+        Map<String, Object> converted = new HashMap<>(values.length * 2);
+        for (int i = 0; i < values.length; i++) {
+            converted.put(this.header.name(i), values[i]);
+        }
+        return converted;
+    }
+
+    private static ParameterSetter setterFor(int dataType) {
+        switch (dataType) {
+            case INTEGER:
+                return (ps, idx, v, type) -> {
+                    if (v instanceof Integer) ps.setInt(idx, (Integer) v);
+                    else setObject(ps, idx, v, type);
+                };
+            case BIGINT:
+                return (ps, idx, v, type) -> {
+                    if (v instanceof Long) ps.setLong(idx, (Long) v);
+                    else setObject(ps, idx, v, type);
+                };
+            case CHAR:
+            case VARCHAR:
+            case LONGVARCHAR:
+            case NCHAR:
+            case NVARCHAR:
+            case LONGNVARCHAR:
+                return (ps, idx, v, type) -> {
+                    if (v instanceof String) ps.setString(idx, (String) v);
+                    else setObject(ps, idx, v, type);
+                };
+            default:
+                return InsertPlan::setObject;
+        }
+    }
+
+    /**
+     * Set value with SQL type. null is set by {@link PreparedStatement#setNull(int, int)}.
+     */
+    static void setObject(PreparedStatement ps, int idx, Object value, int dataType) throws SQLException {
+        if (value == null) ps.setNull(idx, dataType);
+        else ps.setObject(idx, value, dataType);
+    }
+
+    /**
+     * JDBC parameter setter.
+     */
+    @FunctionalInterface
+    interface ParameterSetter {
+        void set(PreparedStatement ps, int index, Object value, int dataType) throws SQLException;
+    }
+
+    /**
+     * Resolved parameter.
+     */
+    static final class Slot {
+        final ColumnDefinition column;
+        final ValueConverter converter;
+        final ParameterSetter setter;
+
+        Slot(ColumnDefinition column, ValueConverter converter, ParameterSetter setter) {
+            this.column = column;
+            this.converter = converter;
+            this.setter = setter;
+        }
+    }
+}
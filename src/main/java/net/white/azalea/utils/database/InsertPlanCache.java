@@ -0,0 +1,51 @@
+package net.white.azalea.utils.database;
+
+import net.white.azalea.utils.database.schema.TableDefinition;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Compiled plans of one table and converter.
+ *
+ * Safe to share between conversion threads.
+ *
+ * @author S.Yoshii
+ */
+class InsertPlanCache {
+
+    private final TableDefinition tableDef;
+    private final ColumnConverter binder;
+    private final ConcurrentMap<RowHeader, InsertPlan> plans = new ConcurrentHashMap<>();
+
+    InsertPlanCache(TableDefinition tableDef, ColumnConverter binder) {
+        this.tableDef = tableDef;
+        this.binder = binder;
+    }
+
+    /**
+     * Find or compile plan.
+     *
+     * @param header source columns.
+     * @return plan for the columns.
+     * @throws IOException find undefined column name.
+     */
+    InsertPlan find(RowHeader header) throws IOException {
+        InsertPlan plan = this.plans.get(header);
+        if (plan == null) {
+            InsertPlan compiled = InsertPlan.compile(this.tableDef, this.binder, header);
+            plan = this.plans.putIfAbsent(header, compiled);
+            if (plan == null) plan = compiled;
+        }
+        return plan;
+    }
+
+    /**
+     * @return compiled plans.
+     */
+    Collection<InsertPlan> plans() {
+        return this.plans.values();
+    }
+}
@@ -0,0 +1,140 @@
+package net.white.azalea.utils.database;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Listener that emits JDK Flight Recorder events.
+ *
+ * Emits {@code net.white.azalea.LoadBatch} for each statement,
+ * and {@code net.white.azalea.LoadTable} for each table.
+ * Events are defined by {@code jdk.jfr.EventFactory} on runtime to keep Java 8 compatibility,
+ * so JDK 11+ or 8u262+ is required. On other runtimes this listener does nothing.
+ *
+ * @author S.Yoshii
+ */
+public class JfrLoadListener implements LoadListener {
+
+    private static final String CATEGORY = "TSV Inserter";
+
+    private static final Method NEW_EVENT;
+    private static final Method SET;
+    private static final Method COMMIT;
+    private static final Method SHOULD_COMMIT;
+    private static final Object BATCH_EVENT;
+    private static final Object TABLE_EVENT;
+
+    static {
+        Method newEvent = null;
+        Method set = null;
+        Method commit = null;
+        Method shouldCommit = null;
+        Object batchEvent = null;
+        Object tableEvent = null;
+        try {
+            Class<?> factory = Class.forName("jdk.jfr.EventFactory");
+            Class<?> event = Class.forName("jdk.jfr.Event");
+            Method create = factory.getMethod("create", List.class, List.class);
+            newEvent = factory.getMethod("newEvent");
+            set = event.getMethod("set", int.class, Object.class);
+            commit = event.getMethod("commit");
+            shouldCommit = event.getMethod("shouldCommit");
+
+            batchEvent = create.invoke(null,
+                    eventAnnotations("net.white.azalea.LoadBatch", "TSV Load Batch"),
+                    Arrays.asList(
+                            field(String.class, "table", "Table"),
+                            field(int.class, "rows", "Rows"),
+                            timespan("executeTime", "Execute Time")));
+            tableEvent = create.invoke(null,
+                    eventAnnotations("net.white.azalea.LoadTable", "TSV Load Table"),
+                    Arrays.asList(
+                            field(String.class, "table", "Table"),
+                            field(long.class, "rows", "Rows"),
+                            field(long.class, "bytes", "Bytes Read", annotation("jdk.jfr.DataAmount", "BYTES")),
+                            field(long.class, "batches", "Batches"),
+                            field(double.class, "rowsPerSecond", "Rows per Second"),
+                            timespan("readTime", "Read Time"),
+                            timespan("convertTime", "Convert Time"),
+                            timespan("bindTime", "Bind Time"),
+                            timespan("executeTime", "Execute Time"),
+                            timespan("elapsedTime", "Elapsed Time")));
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // JFR is not available.
+            batchEvent = null;
+            tableEvent = null;
+        }
+        NEW_EVENT = newEvent;
+        SET = set;
+        COMMIT = commit;
+        SHOULD_COMMIT = shouldCommit;
+        BATCH_EVENT = batchEvent;
+        TABLE_EVENT = tableEvent;
+    }
+
+    /**
+     * @return true if events can be emitted on this runtime.
+     */
+    public static boolean isAvailable() {
+        return BATCH_EVENT != null;
+    }
+
+    @Override
+    public void batchExecuted(String table, int rows, long nanos) {
+        commit(BATCH_EVENT, table, rows, nanos);
+    }
+
+    @Override
+    public void loadFinished(LoadStats stats) {
+        commit(TABLE_EVENT,
+                stats.table, stats.rows, stats.bytes, stats.batches, stats.rowsPerSecond(),
+                stats.readNanos, stats.convertNanos, stats.bindNanos, stats.executeNanos, stats.elapsedNanos);
+    }
+
+    private static void commit(Object factory, Object... values) {
+        if (factory == null) return;
+        try {
+            Object event = NEW_EVENT.invoke(factory);
+            if (!(Boolean) SHOULD_COMMIT.invoke(event)) return;
+
+            for (int i = 0; i < values.length; i++) {
+                SET.invoke(event, i, values[i]);
+            }
+            COMMIT.invoke(event);
+        } catch (ReflectiveOperationException e) {
+            // never fail load by profiling.
+        }
+    }
+
+    private static List<Object> eventAnnotations(String name, String label) throws ReflectiveOperationException {
+        return Arrays.asList(
+                annotation("jdk.jfr.Name", name),
+                annotation("jdk.jfr.Label", label),
+                annotation("jdk.jfr.Category", new String[]{CATEGORY}));
+    }
+
+    private static Object timespan(String name, String label) throws ReflectiveOperationException {
+        return field(long.class, name, label, annotation("jdk.jfr.Timespan", "NANOSECONDS"));
+    }
+
+    private static Object field(Class<?> type, String name, String label, Object... annotations)
+            throws ReflectiveOperationException {
+        List<Object> elements = new ArrayList<>(Arrays.asList(annotations));
+        elements.add(annotation("jdk.jfr.Label", label));
+        Constructor<?> constructor =
+                Class.forName("jdk.jfr.ValueDescriptor").getConstructor(Class.class, String.class, List.class);
+        return constructor.newInstance(type, name, Collections.unmodifiableList(elements));
+    }
+
+    private static Object annotation(String type, Object value) throws ReflectiveOperationException {
+        Class<? extends Annotation> annotationType = Class.forName(type).asSubclass(Annotation.class);
+        Constructor<?> constructor =
+                Class.forName("jdk.jfr.AnnotationElement").getConstructor(Class.class, Object.class);
+        return constructor.newInstance(annotationType, value);
+    }
+}
@@ -0,0 +1,83 @@
+package net.white.azalea.utils.database;
+
+/**
+ * Listener of table load.
+ *
+ * All methods are called on the loading thread, and do nothing by default.
+ * Loads without listener ({@link #NONE}) do not measure time at all.
+ *
+ * @author S.Yoshii
+ */
+public interface LoadListener {
+
+    /**
+     * Listener that does nothing.
+     */
+    LoadListener NONE = new LoadListener() {
+    };
+
+    /**
+     * Called before first row is read.
+     *
+     * @param table target table name.
+     */
+    default void loadStarted(String table) {
+    }
+
+    /**
+     * Called after a statement is executed.
+     *
+     * @param table target table name.
+     * @param rows  rows in the statement.
+     * @param nanos execution time.
+     */
+    default void batchExecuted(String table, int rows, long nanos) {
+    }
+
+    /**
+     * Called after all rows are written.
+     *
+     * @param stats totals of the load.
+     */
+    default void loadFinished(LoadStats stats) {
+    }
+
+    /**
+     * Called when load failed.
+     *
+     * @param table target table name.
+     * @param error cause.
+     */
+    default void loadFailed(String table, Throwable error) {
+    }
+
+    /**
+     * Combine listeners.
+     *
+     * @param listeners listeners called in order.
+     * @return combined listener.
+     */
+    static LoadListener of(final LoadListener... listeners) {
+        return new LoadListener() {
+            @Override
+            public void loadStarted(String table) {
+                for (LoadListener l : listeners) l.loadStarted(table);
+            }
+
+            @Override
+            public void batchExecuted(String table, int rows, long nanos) {
+                for (LoadListener l : listeners) l.batchExecuted(table, rows, nanos);
+            }
+
+            @Override
+            public void loadFinished(LoadStats stats) {
+                for (LoadListener l : listeners) l.loadFinished(stats);
+            }
+
+            @Override
+            public void loadFailed(String table, Throwable error) {
+                for (LoadListener l : listeners) l.loadFailed(table, error);
+            }
+        };
+    }
+}
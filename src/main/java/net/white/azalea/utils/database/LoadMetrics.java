@@ -0,0 +1,99 @@
+package net.white.azalea.utils.database;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Listener that aggregates loads by table.
+ *
+ * Batch latencies are counted in power of two buckets of microseconds.
+ * Safe to share between loading threads.
+ *
+ * @author S.Yoshii
+ */
+public class LoadMetrics implements LoadListener {
+
+    /**
+     * Count of latency buckets. last bucket has all latencies over 2^(BUCKETS-1) micros.
+     */
+    public static final int BUCKETS = 32;
+
+    private final ConcurrentMap<String, LoadStats> tables = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, AtomicLongArray> latencies = new ConcurrentHashMap<>();
+
+    @Override
+    public void batchExecuted(String table, int rows, long nanos) {
+        this.latencies.computeIfAbsent(table, t -> new AtomicLongArray(BUCKETS)).incrementAndGet(bucket(nanos));
+    }
+
+    @Override
+    public void loadFinished(LoadStats stats) {
+        this.tables.merge(stats.table, stats, LoadStats::plus);
+    }
+
+    /**
+     * @return totals by table name.
+     */
+    public Map<String, LoadStats> tables() {
+        return Collections.unmodifiableMap(new TreeMap<>(this.tables));
+    }
+
+    /**
+     * Batch latency histogram.
+     *
+     * Bucket {@code i} counts latencies less than {@code 2^i} micros (and not less than {@code 2^(i-1)}).
+     *
+     * @param table table name.
+     * @return counts by bucket.
+     */
+    public long[] latencyHistogram(String table) {
+        long[] counts = new long[BUCKETS];
+        AtomicLongArray buckets = this.latencies.get(table);
+        if (buckets != null) {
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = buckets.get(i);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Batch latency percentile.
+     *
+     * @param table      table name.
+     * @param percentile 0 to 100.
+     * @return upper bound of the bucket in micros, or 0 if no batch.
+     */
+    public long latencyPercentile(String table, double percentile) {
+        long[] counts = this.latencyHistogram(table);
+        long total = 0;
+        for (long count : counts) total += count;
+        if (total == 0) return 0;
+
+        long rank = (long) Math.ceil(total * percentile / 100);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank && counts[i] > 0) return 1L << i;
+        }
+        return 1L << (BUCKETS - 1);
+    }
+
+    /**
+     * Remove all records.
+     */
+    public void clear() {
+        this.tables.clear();
+        this.latencies.clear();
+    }
+
+    private static int bucket(long nanos) {
+        long micros = nanos / 1000;
+        int bucket = 64 - Long.numberOfLeadingZeros(micros);
+        return Math.min(bucket, BUCKETS - 1);
+    }
+}
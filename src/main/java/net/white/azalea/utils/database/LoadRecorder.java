@@ -0,0 +1,84 @@
+package net.white.azalea.utils.database;
+
+/**
+ * Measure phases of one table load, and report to listener.
+ *
+ * If listener is {@link LoadListener#NONE}, no clock is read.
+ * Not thread safe.
+ *
+ * @author S.Yoshii
+ */
+final class LoadRecorder {
+
+    /**
+     * Recorder that measures nothing.
+     */
+    static final LoadRecorder NONE = new LoadRecorder("", LoadListener.NONE);
+
+    private final String table;
+    private final LoadListener listener;
+    private final boolean enabled;
+
+    private long startedAt;
+    private long rows;
+    private long batches;
+    private long readNanos;
+    private long convertNanos;
+    private long bindNanos;
+    private long executeNanos;
+
+    LoadRecorder(String table, LoadListener listener) {
+        this.table = table;
+        this.listener = listener;
+        this.enabled = listener != LoadListener.NONE;
+    }
+
+    /**
+     * @return current time, or 0 if disabled.
+     */
+    long start() {
+        return this.enabled ? System.nanoTime() : 0;
+    }
+
+    void started() {
+        if (!this.enabled) return;
+        this.startedAt = System.nanoTime();
+        this.listener.loadStarted(this.table);
+    }
+
+    void read(long start) {
+        if (this.enabled) this.readNanos += System.nanoTime() - start;
+    }
+
+    void converted(long start) {
+        if (this.enabled) this.convertNanos += System.nanoTime() - start;
+    }
+
+    void bound(long start) {
+        if (this.enabled) this.bindNanos += System.nanoTime() - start;
+    }
+
+    void executed(long start, int rows) {
+        if (!this.enabled) return;
+        long nanos = System.nanoTime() - start;
+        this.executeNanos += nanos;
+        this.batches++;
+        this.listener.batchExecuted(this.table, rows, nanos);
+    }
+
+    void written() {
+        if (this.enabled) this.rows++;
+    }
+
+    void finished(long bytes) {
+        if (!this.enabled) return;
+        this.listener.loadFinished(new LoadStats(
+                this.table, this.rows, bytes, this.batches,
+                this.readNanos, this.convertNanos, this.bindNanos, this.executeNanos,
+                System.nanoTime() - this.startedAt));
+    }
+
+    void failed(Throwable error) {
+        if (this.enabled) this.listener.loadFailed(this.table, error);
+    }
+}
@@ -0,0 +1,117 @@
+package net.white.azalea.utils.database;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Totals of table load.
+ *
+ * Phase times are sum of all rows, so they can be compared to find the slowest phase.
+ *
+ * @author S.Yoshii
+ */
+public final class LoadStats {
+
+    /**
+     * Target table name.
+     */
+    public final String table;
+
+    /**
+     * Written rows.
+     */
+    public final long rows;
+
+    /**
+     * Bytes read from data source, or -1 if unknown.
+     */
+    public final long bytes;
+
+    /**
+     * Executed statements.
+     */
+    public final long batches;
+
+    /**
+     * Time to read rows from data source.
+     */
+    public final long readNanos;
+
+    /**
+     * Time of prepare handler and column conversion.
+     */
+    public final long convertNanos;
+
+    /**
+     * Time to bind parameters.
+     */
+    public final long bindNanos;
+
+    /**
+     * Time to execute statements.
+     */
+    public final long executeNanos;
+
+    /**
+     * Wall clock time of load.
+     */
+    public final long elapsedNanos;
+
+    public LoadStats(
+            String table,
+            long rows,
+            long bytes,
+            long batches,
+            long readNanos,
+            long convertNanos,
+            long bindNanos,
+            long executeNanos,
+            long elapsedNanos) {
+        this.table = table;
+        this.rows = rows;
+        this.bytes = bytes;
+        this.batches = batches;
+        this.readNanos = readNanos;
+        this.convertNanos = convertNanos;
+        this.bindNanos = bindNanos;
+        this.executeNanos = executeNanos;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * @return written rows per second.
+     */
+    public double rowsPerSecond() {
+        return this.elapsedNanos == 0 ? 0 : this.rows * (double) TimeUnit.SECONDS.toNanos(1) / this.elapsedNanos;
+    }
+
+    /**
+     * Sum of two loads.
+     *
+     * @param other other load of same table.
+     * @return totals.
+     */
+    public LoadStats plus(LoadStats other) {
+        return new LoadStats(
+                this.table,
+                this.rows + other.rows,
+                this.bytes < 0 || other.bytes < 0 ? -1 : this.bytes + other.bytes,
+                this.batches + other.batches,
+                this.readNanos + other.readNanos,
+                this.convertNanos + other.convertNanos,
+                this.bindNanos + other.bindNanos,
+                this.executeNanos + other.executeNanos,
+                this.elapsedNanos + other.elapsedNanos);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "%s: %d rows, %d bytes, %d batches, %.1f rows/s (read %d ms, convert %d ms, bind %d ms, execute %d ms, total %d ms)",
+                this.table, this.rows, this.bytes, this.batches, this.rowsPerSecond(),
+                TimeUnit.NANOSECONDS.toMillis(this.readNanos),
+                TimeUnit.NANOSECONDS.toMillis(this.convertNanos),
+                TimeUnit.NANOSECONDS.toMillis(this.bindNanos),
+                TimeUnit.NANOSECONDS.toMillis(this.executeNanos),
+                TimeUnit.NANOSECONDS.toMillis(this.elapsedNanos));
+    }
+}
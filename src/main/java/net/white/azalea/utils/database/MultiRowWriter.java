@@ -0,0 +1,137 @@
+package net.white.azalea.utils.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * Write rows with multi row VALUES statement.
+ *
+ * Rows per statement is decided from column count and max bind parameters of one statement.
+ * Each statement size (full chunk and final short chunk) has its own cached PreparedStatement.
+ * Open chunk is executed when plan is changed, so rows are executed in written order.
+ *
+ * @author S.Yoshii
+ */
+class MultiRowWriter implements RowWriter {
+
+    private final Connection connection;
+    private final int maxBindParameters;
+    private final Map<InsertPlan, Chunk> chunks = new IdentityHashMap<>();
+
+    /**
+     * Chunk of last written row.
+     */
+    private Chunk last;
+    private final List<BatchResult> results = new ArrayList<>();
+    private final LoadRecorder recorder;
+
+    MultiRowWriter(Connection connection, int maxBindParameters) {
+        this(connection, maxBindParameters, LoadRecorder.NONE);
+    }
+
+    MultiRowWriter(Connection connection, int maxBindParameters, LoadRecorder recorder) {
+        if (maxBindParameters < 1) {
+            throw new IllegalArgumentException("maxBindParameters must be positive: " + maxBindParameters);
+        }
+        this.connection = connection;
+        this.maxBindParameters = maxBindParameters;
+        this.recorder = recorder;
+    }
+
+    /**
+     * Decide rows per statement.
+     *
+     * @param columns           column count.
+     * @param maxBindParameters max bind parameters of one statement.
+     * @return rows per statement. at least 1.
+     */
+    static int chunkSize(int columns, int maxBindParameters) {
+        return columns == 0 ? 1 : Math.max(1, maxBindParameters / columns);
+    }
+
+    @Override
+    public void write(InsertPlan plan, Object[] values) throws SQLException {
+        Chunk chunk = this.chunks.get(plan);
+        if (chunk == null) {
+            chunk = new Chunk(plan, chunkSize(plan.slots.length, this.maxBindParameters));
+            this.chunks.put(plan, chunk);
+        }
+        if (chunk != this.last) {
+            // column set is changed.
+            if (this.last != null && !this.last.rows.isEmpty()) {
+                this.results.add(this.last.execute());
+            }
+            this.last = chunk;
+        }
+
+        chunk.rows.add(values);
+        if (chunk.rows.size() >= chunk.size) {
+            this.results.add(chunk.execute());
+        }
+    }
+
+    @Override
+    public void flush() throws SQLException {
+        // only last chunk has rows.
+        if (this.last != null && !this.last.rows.isEmpty()) {
+            this.results.add(this.last.execute());
+        }
+    }
+
+    @Override
+    public List<BatchResult> results() {
+        return this.results;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        for (Chunk chunk : this.chunks.values()) {
+            for (PreparedStatement ps : chunk.statements.values()) {
+                ps.close();
+            }
+        }
+    }
+
+    /**
+     * Buffered rows and statements by row count.
+     */
+    private class Chunk {
+        private final InsertPlan plan;
+        private final int size;
+        private final List<Object[]> rows;
+        private final Map<Integer, PreparedStatement> statements = new HashMap<>();
+        private final Map<Integer, String> sqls = new HashMap<>();
+
+        private Chunk(InsertPlan plan, int size) {
+            this.plan = plan;
+            this.size = size;
+            this.rows = new ArrayList<>(size);
+        }
+
+        private BatchResult execute() throws SQLException {
+            int count = this.rows.size();
+            PreparedStatement ps = this.statements.get(count);
+            if (ps == null) {
+                String sql = InsertPlan.toInsertSql(this.plan.table, this.plan.columnNames, count);
+                ps = connection.prepareStatement(sql);
+                this.statements.put(count, ps);
+                this.sqls.put(count, sql);
+            }
+
+            long start = recorder.start();
+            int columns = this.plan.slots.length;
+            for (int i = 0; i < count; i++) {
+                this.plan.bind(ps, i * columns, this.rows.get(i));
+            }
+            recorder.bound(start);
+
+            start = recorder.start();
+            int updated = ps.executeUpdate();
+            recorder.executed(start, count);
+            this.rows.clear();
+            return new BatchResult(this.sqls.get(count), new int[]{updated});
+        }
+    }
+}
@@ -0,0 +1,450 @@
+package net.white.azalea.utils.database;
+
+import net.white.azalea.utils.database.schema.TableDefinition;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Insert to one table with multiple connections.
+ *
+ * The calling thread reads rows from data source and splits them into chunks of {@code batchSize} rows.
+ * Each partition thread takes chunks from shared bounded queue,
+ * and writes them with JDBC batch in its own session and transaction.
+ * Insertion order is not kept.
+ *
+ * @author S.Yoshii
+ */
+public class PartitionedInserter {
+
+    /**
+     * Transaction handling of partitions.
+     */
+    public enum Mode {
+
+        /**
+         * Each partition commits when its rows are written. failed partition is rolled back,
+         * but other partitions may be committed already.
+         */
+        INDEPENDENT,
+
+        /**
+         * Partitions commit only after all partitions wrote rows, otherwise all partitions are rolled back.
+         * If a commit fails after others, committed partitions are kept.
+         */
+        COORDINATED,
+
+        /**
+         * Partitions write to staging table copied from target table,
+         * then rows are moved to target table in one transaction, and staging table is dropped.
+         * Database must support {@code CREATE TABLE .. AS SELECT}.
+         */
+        STAGING
+    }
+
+    /**
+     * End of rows marker.
+     */
+    private static final List<Row> END = Collections.emptyList();
+
+    private final ConnectionSupplier connections;
+    private final String schema;
+    private final TableSchemaCache tableSchemaCache;
+    private final int parallelism;
+    private final int queueCapacity;
+
+    /**
+     * @param connections   connection source. called {@code parallelism} times in a load.
+     * @param schemaName    database schema name.
+     * @param parallelism   count of partitions.
+     * @param queueCapacity max chunks in flight.
+     */
+    public PartitionedInserter(ConnectionSupplier connections, String schemaName, int parallelism, int queueCapacity) {
+        this(connections, schemaName, TableSchemaCache.getInstance(), parallelism, queueCapacity);
+    }
+
+    /**
+     * @param connections      connection source. called {@code parallelism} times in a load.
+     * @param schemaName       database schema name.
+     * @param tableSchemaCache table schema cache.
+     * @param parallelism      count of partitions.
+     * @param queueCapacity    max chunks in flight.
+     */
+    public PartitionedInserter(
+            ConnectionSupplier connections,
+            String schemaName,
+            TableSchemaCache tableSchemaCache,
+            int parallelism,
+            int queueCapacity) {
+        if (parallelism < 1) throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        if (queueCapacity < 1) throw new IllegalArgumentException("queueCapacity must be positive: " + queueCapacity);
+        this.connections = connections;
+        this.schema = schemaName;
+        this.tableSchemaCache = tableSchemaCache;
+        this.parallelism = parallelism;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Execute partitioned batch Insert.
+     *
+     * @param tableName target table name.
+     * @param source    data source.
+     * @param binder    data conversion adapter. must be thread safe.
+     * @param batchSize max rows in one JDBC batch.
+     * @param mode      transaction handling.
+     * @return executed batch results of all partitions.
+     * @throws SQLException if cannot insert.
+     * @throws IOException find undefined column name or cannot access data source.
+     */
+    public List<BatchResult> insert(
+            final String tableName,
+            final DataSource source,
+            final ColumnConverter binder,
+            final int batchSize,
+            final Mode mode
+    ) throws SQLException, IOException {
+        return this.insert(tableName, source, binder, src -> src, batchSize, mode);
+    }
+
+    /**
+     * Execute partitioned batch Insert.
+     *
+     * On {@link Mode#STAGING}, last result is the statement that moves rows to target table.
+     * Columns that do not appear in source are copied as NULL, not as column default.
+     *
+     * @param tableName target table name.
+     * @param source    data source.
+     * @param binder    data conversion adapter. must be thread safe.
+     * @param prepare   event handler that call before conversion. called on partition threads.
+     * @param batchSize max rows in one JDBC batch.
+     * @param mode      transaction handling.
+     * @return executed batch results of all partitions.
+     * @throws SQLException Insertion failed or handler error.
+     * @throws IOException  Can't load data source.
+     */
+    public List<BatchResult> insert(
+            String tableName,
+            DataSource source,
+            ColumnConverter binder,
+            TableInserter.RowFunction prepare,
+            int batchSize,
+            Mode mode
+    ) throws SQLException, IOException {
+        if (batchSize < 1) throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+
+        List<Connection> sessions = new ArrayList<>();
+        List<Boolean> autoCommits = new ArrayList<>();
+        ExecutorService partitions = Executors.newFixedThreadPool(this.parallelism, threadFactory());
+        AtomicBoolean stopped = new AtomicBoolean();
+        String stagingTable = null;
+        Throwable failure = null;
+        try {
+            for (int i = 0; i < this.parallelism; i++) {
+                Connection connection = this.connections.get();
+                sessions.add(connection);
+                autoCommits.add(connection.getAutoCommit());
+                connection.setAutoCommit(false);
+            }
+            Connection first = sessions.get(0);
+
+            TableDefinition tableDef =
+                    this.tableSchemaCache.getTableDefinition(first, this.schema, tableName);
+            if (mode == Mode.STAGING) {
+                stagingTable = createStagingTable(first, tableDef);
+                tableDef = new TableDefinition(tableDef.schemaName, stagingTable, tableDef.columnDefinitions);
+            }
+            InsertPlanCache plans =
+                    new InsertPlanCache(tableDef, binder);
+
+            // start partitions.
+            BlockingQueue<List<Row>> queue = new ArrayBlockingQueue<>(this.queueCapacity);
+            List<Future<List<BatchResult>>> futures = new ArrayList<>();
+            for (final Connection connection : sessions) {
+                futures.add(partitions.submit(() ->
+                        write(connection, queue, prepare, plans, batchSize, mode != Mode.COORDINATED, stopped)));
+            }
+
+            // split rows.
+            try {
+                this.read(source, batchSize, queue, stopped);
+            } finally {
+                for (int i = 0; i < sessions.size(); i++) {
+                    put(queue, END, stopped);
+                }
+            }
+
+            List<BatchResult> results = new ArrayList<>();
+            for (Future<List<BatchResult>> future : futures) {
+                results.addAll(get(future));
+            }
+
+            // finish.
+            if (mode == Mode.COORDINATED) {
+                for (Connection connection : sessions) {
+                    connection.commit();
+                }
+            } else if (mode == Mode.STAGING) {
+                results.add(moveRows(first, tableName, stagingTable, plans));
+                first.commit();
+            }
+            return results;
+        } catch (SQLException | IOException | RuntimeException | Error e) {
+            failure = e;
+            rollback(sessions, partitions, stopped, e);
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            IOException error = new IOException("Interrupted while loading.", e);
+            failure = error;
+            rollback(sessions, partitions, stopped, error);
+            throw error;
+        } finally {
+            stopped.set(true);
+            partitions.shutdownNow();
+            awaitTermination(partitions);
+
+            // keep primary error.
+            SQLException cleanupError = null;
+            if (stagingTable != null) {
+                try {
+                    dropStagingTable(sessions.get(0), stagingTable);
+                } catch (SQLException e) {
+                    cleanupError = e;
+                }
+            }
+            try {
+                close(sessions, autoCommits);
+            } catch (SQLException e) {
+                if (cleanupError == null) cleanupError = e;
+                else cleanupError.addSuppressed(e);
+            }
+            if (cleanupError != null) {
+                if (failure == null) throw cleanupError;
+                failure.addSuppressed(cleanupError);
+            }
+        }
+    }
+
+    /**
+     * Stop partitions, then roll back all sessions.
+     *
+     * Partitions are awaited first, so no batch is executed after rollback.
+     */
+    private static void rollback(
+            List<Connection> sessions,
+            ExecutorService partitions,
+            AtomicBoolean stopped,
+            Throwable error) {
+        stopped.set(true);
+        partitions.shutdownNow();
+        awaitTermination(partitions);
+        for (Connection connection : sessions) {
+            try {
+                connection.rollback();
+            } catch (SQLException re) {
+                error.addSuppressed(re);
+            }
+        }
+    }
+
+    /**
+     * Read rows and put chunks.
+     */
+    private void read(
+            DataSource source,
+            int batchSize,
+            BlockingQueue<List<Row>> queue,
+            AtomicBoolean stopped) throws IOException, InterruptedException {
+        try (DataCursor<Row> cursor = source.openRowCursor()) {
+            List<Row> chunk = new ArrayList<>(batchSize);
+            while (!stopped.get() && cursor.hasNext()) {
+                chunk.add(cursor.next());
+                if (chunk.size() >= batchSize) {
+                    put(queue, chunk, stopped);
+                    chunk = new ArrayList<>(batchSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                put(queue, chunk, stopped);
+            }
+        } catch (IOException | RuntimeException | Error e) {
+            stopped.set(true);
+            throw e;
+        }
+    }
+
+    /**
+     * Write chunks on one partition.
+     */
+    private static List<BatchResult> write(
+            Connection connection,
+            BlockingQueue<List<Row>> queue,
+            TableInserter.RowFunction prepare,
+            InsertPlanCache plans,
+            int batchSize,
+            boolean commit,
+            AtomicBoolean stopped) throws Exception {
+        try (BatchRowWriter writer = new BatchRowWriter(connection, batchSize)) {
+            while (true) {
+                List<Row> chunk = take(queue, stopped);
+                if (chunk == END) break;
+
+                for (Row row : chunk) {
+                    // prepare conversion.
+                    Row src = prepare.apply(row);
+
+                    // column values.
+                    InsertPlan plan = plans.find(src.header);
+                    writer.write(plan, plan.convert(src));
+                }
+            }
+
+            // rest rows. discarded if load is stopped, because sessions are rolled back.
+            if (stopped.get()) {
+                return writer.results();
+            }
+            writer.flush();
+            if (commit) {
+                connection.commit();
+            }
+            return writer.results();
+        } catch (Exception | Error e) {
+            stopped.set(true);
+            throw e;
+        }
+    }
+
+    /**
+     * Put to queue until load stops.
+     */
+    private static void put(
+            BlockingQueue<List<Row>> queue,
+            List<Row> chunk,
+            AtomicBoolean stopped) throws InterruptedException {
+        while (!stopped.get()) {
+            if (queue.offer(chunk, 100, TimeUnit.MILLISECONDS)) return;
+        }
+    }
+
+    /**
+     * Take from queue until load stops.
+     *
+     * @return chunk, or END if stopped.
+     */
+    private static List<Row> take(
+            BlockingQueue<List<Row>> queue,
+            AtomicBoolean stopped) throws InterruptedException {
+        while (!stopped.get()) {
+            List<Row> chunk = queue.poll(100, TimeUnit.MILLISECONDS);
+            if (chunk != null) return chunk;
+        }
+        return END;
+    }
+
+    /**
+     * Wait for partition, and unwrap error.
+     */
+    private static List<BatchResult> get(Future<List<BatchResult>> future)
+            throws SQLException, IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) throw (SQLException) cause;
+            if (cause instanceof IOException) throw (IOException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Create empty copy of target table.
+     *
+     * @return staging table name.
+     */
+    private static String createStagingTable(Connection connection, TableDefinition tableDef) throws SQLException {
+        String stagingTable = tableDef.tableName + "_STG_" + Long.toHexString(System.nanoTime());
+        try (Statement st = connection.createStatement()) {
+            st.execute("CREATE TABLE " + stagingTable + " AS SELECT * FROM " + tableDef.tableName + " WHERE 1 = 0");
+        }
+        connection.commit();
+        return stagingTable;
+    }
+
+    /**
+     * Copy loaded columns from staging table to target table.
+     */
+    private static BatchResult moveRows(
+            Connection connection,
+            String tableName,
+            String stagingTable,
+            InsertPlanCache plans) throws SQLException {
+        Set<String> columns = new LinkedHashSet<>();
+        for (InsertPlan plan : plans.plans()) {
+            columns.addAll(plan.columnNames);
+        }
+        if (columns.isEmpty()) {
+            return new BatchResult("", new int[0]);
+        }
+
+        String columnDef = String.join(", ", columns);
+        String sql = String.format(
+                "INSERT INTO %s (%s) SELECT %s FROM %s", tableName, columnDef, columnDef, stagingTable);
+        try (Statement st = connection.createStatement()) {
+            return new BatchResult(sql, new int[]{st.executeUpdate(sql)});
+        }
+    }
+
+    private static void dropStagingTable(Connection connection, String stagingTable) throws SQLException {
+        try (Statement st = connection.createStatement()) {
+            st.execute("DROP TABLE " + stagingTable);
+        }
+        connection.commit();
+    }
+
+    /**
+     * Restore auto commit and close connections.
+     *
+     * Rows not committed are rolled back first, because restoring auto commit commits them.
+     */
+    private static void close(List<Connection> sessions, List<Boolean> autoCommits) throws SQLException {
+        SQLException error = null;
+        for (int i = 0; i < sessions.size(); i++) {
+            try (Connection connection = sessions.get(i)) {
+                if (i < autoCommits.size()) {
+                    connection.rollback();
+                    connection.setAutoCommit(autoCommits.get(i));
+                }
+            } catch (SQLException e) {
+                if (error == null) error = e;
+                else error.addSuppressed(e);
+            }
+        }
+        if (error != null) throw error;
+    }
+
+    private static void awaitTermination(ExecutorService executor) {
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ThreadFactory threadFactory() {
+        final AtomicInteger count = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, "tsv-inserter-partition-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,228 @@
+package net.white.azalea.utils.database;
+
+import net.white.azalea.utils.database.schema.TableDefinition;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Insert to target table with pipelined threads.
+ *
+ * One reader thread reads rows from data source, worker threads run prepare handler and column conversion,
+ * and the calling thread writes JDBC batches as the only user of connection.
+ * Stages are linked by bounded queue, so rows in flight are at most {@code queueCapacity}.
+ * Insertion order is same as data source.
+ *
+ * @author S.Yoshii
+ */
+public class PipelinedInserter {
+
+    /**
+     * End of rows marker.
+     */
+    private static final Converted END = new Converted(null, null);
+
+    private final Connection connection;
+    private final String schema;
+    private final TableSchemaCache tableSchemaCache;
+    private final int workers;
+    private final int queueCapacity;
+
+    /**
+     * @param connection    connection that used by writer.
+     * @param schemaName    database schema name.
+     * @param workers       count of conversion threads.
+     * @param queueCapacity max rows in flight.
+     */
+    public PipelinedInserter(Connection connection, String schemaName, int workers, int queueCapacity) {
+        this(connection, schemaName, TableSchemaCache.getInstance(), workers, queueCapacity);
+    }
+
+    /**
+     * @param connection       connection that used by writer.
+     * @param schemaName       database schema name.
+     * @param tableSchemaCache table schema cache.
+     * @param workers          count of conversion threads.
+     * @param queueCapacity    max rows in flight.
+     */
+    public PipelinedInserter(
+            Connection connection,
+            String schemaName,
+            TableSchemaCache tableSchemaCache,
+            int workers,
+            int queueCapacity) {
+        if (workers < 1) throw new IllegalArgumentException("workers must be positive: " + workers);
+        if (queueCapacity < 1) throw new IllegalArgumentException("queueCapacity must be positive: " + queueCapacity);
+        this.connection = connection;
+        this.schema = schemaName;
+        this.tableSchemaCache = tableSchemaCache;
+        this.workers = workers;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Execute pipelined batch Insert.
+     *
+     * @param tableName target table name.
+     * @param source    data source.
+     * @param binder    data conversion adapter. must be thread safe.
+     * @param batchSize max rows in one JDBC batch.
+     * @return executed batch results.
+     * @throws SQLException if cannot insert.
+     * @throws IOException find undefined column name or cannot access data source.
+     */
+    public List<BatchResult> insert(
+            final String tableName,
+            final DataSource source,
+            final ColumnConverter binder,
+            final int batchSize
+    ) throws SQLException, IOException {
+        return this.insert(tableName, source, binder, src -> src, batchSize);
+    }
+
+    /**
+     * Execute pipelined batch Insert.
+     *
+     * @param tableName target table name.
+     * @param source    data source.
+     * @param binder    data conversion adapter. must be thread safe.
+     * @param prepare   event handler that call before conversion. called on worker threads.
+     * @param batchSize max rows in one JDBC batch.
+     * @return executed batch results.
+     * @throws SQLException Insertion failed or handler error.
+     * @throws IOException  Can't load data source.
+     */
+    public List<BatchResult> insert(
+            String tableName,
+            DataSource source,
+            ColumnConverter binder,
+            TableInserter.RowFunction prepare,
+            int batchSize
+    ) throws SQLException, IOException {
+
+        TableDefinition tableDef =
+                this.tableSchemaCache.getTableDefinition(this.connection, this.schema, tableName);
+        InsertPlanCache plans =
+                new InsertPlanCache(tableDef, binder);
+        BlockingQueue<Future<Converted>> queue =
+                new ArrayBlockingQueue<>(this.queueCapacity);
+        AtomicBoolean stopped =
+                new AtomicBoolean();
+
+        ExecutorService reader = Executors.newSingleThreadExecutor(threadFactory("tsv-inserter-reader"));
+        ExecutorService converters = Executors.newFixedThreadPool(this.workers, threadFactory("tsv-inserter-converter"));
+        try (BatchRowWriter writer = new BatchRowWriter(this.connection, batchSize)) {
+            reader.execute(() -> read(source, prepare, plans, converters, queue, stopped));
+
+            while (true) {
+                Converted row = get(queue.take());
+                if (row == END) break;
+
+                writer.write(row.plan, row.values);
+            }
+
+            // rest rows.
+            writer.flush();
+            return writer.results();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting rows.", e);
+        } finally {
+            stopped.set(true);
+            reader.shutdownNow();
+            converters.shutdownNow();
+        }
+    }
+
+    /**
+     * Read rows and submit conversion in order.
+     */
+    private static void read(
+            DataSource source,
+            TableInserter.RowFunction prepare,
+            InsertPlanCache plans,
+            ExecutorService converters,
+            BlockingQueue<Future<Converted>> queue,
+            AtomicBoolean stopped) {
+        try {
+            try (DataCursor<Row> cursor = source.openRowCursor()) {
+                while (!stopped.get() && cursor.hasNext()) {
+                    final Row row = cursor.next();
+                    put(queue, converters.submit(() -> {
+                        Row src = prepare.apply(row);
+                        InsertPlan plan = plans.find(src.header);
+                        return new Converted(plan, plan.convert(src));
+                    }), stopped);
+                }
+            }
+            put(queue, CompletableFuture.completedFuture(END), stopped);
+        } catch (InterruptedException e) {
+            // writer stopped.
+            Thread.currentThread().interrupt();
+        } catch (Exception | Error e) {
+            CompletableFuture<Converted> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            try {
+                put(queue, failed, stopped);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Put to queue until writer stops.
+     */
+    private static void put(
+            BlockingQueue<Future<Converted>> queue,
+            Future<Converted> row,
+            AtomicBoolean stopped) throws InterruptedException {
+        while (!stopped.get()) {
+            if (queue.offer(row, 100, TimeUnit.MILLISECONDS)) return;
+        }
+    }
+
+    /**
+     * Wait for converted row, and unwrap conversion error.
+     */
+    private static Converted get(Future<Converted> future)
+            throws SQLException, IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) throw (SQLException) cause;
+            if (cause instanceof IOException) throw (IOException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IOException(cause);
+        }
+    }
+
+    private static ThreadFactory threadFactory(final String name) {
+        final AtomicInteger count = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Converted row and its plan.
+     */
+    private static final class Converted {
+        private final InsertPlan plan;
+        private final Object[] values;
+
+        private Converted(InsertPlan plan, Object[] values) {
+            this.plan = plan;
+            this.values = values;
+        }
+    }
+}
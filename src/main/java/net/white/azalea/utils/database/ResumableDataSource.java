@@ -0,0 +1,42 @@
+package net.white.azalea.utils.database;
+
+import java.io.IOException;
+
+/**
+ * Data source that can restart from middle of rows.
+ *
+ * @author S.Yoshii
+ */
+public interface ResumableDataSource extends DataSource {
+
+    /**
+     * Identity of data source contents.
+     *
+     * Identity must be changed if contents are modified, so stale checkpoint is detected.
+     *
+     * @return identity string.
+     * @throws IOException if cannot access data source.
+     */
+    String identity() throws IOException;
+
+    /**
+     * Open row cursor from middle of rows.
+     *
+     * @param rowIndex count of rows to skip.
+     * @param offset   byte offset of the row from {@link Cursor#position()}, or -1 if unknown.
+     * @return row cursor. caller must close it.
+     * @throws IOException if cannot open.
+     */
+    Cursor openRowCursor(long rowIndex, long offset) throws IOException;
+
+    /**
+     * Row cursor that knows its position.
+     */
+    interface Cursor extends DataCursor<Row> {
+
+        /**
+         * @return byte offset of next row, or -1 if cursor cannot seek.
+         */
+        long position();
+    }
+}
@@ -0,0 +1,79 @@
+package net.white.azalea.utils.database;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Index based row of data source.
+ *
+ * Column names are held by shared {@link RowHeader},
+ * so a row has only its values.
+ *
+ * @author S.Yoshii
+ */
+public final class Row {
+
+    /**
+     * Column names.
+     */
+    public final RowHeader header;
+
+    /**
+     * Column values, same order as header.
+     */
+    public final String[] values;
+
+    public Row(final RowHeader header, final String[] values) {
+        if (header.size() != values.length) {
+            throw new IllegalArgumentException("Column count mismatch: " + header + " and " + values.length + " values");
+        }
+        this.header = header;
+        this.values = values;
+    }
+
+    /**
+     * Create row from map.
+     *
+     * @param src  Column,Value mapping.
+     * @param hint header that reused if map has same keys. nullable.
+     * @return row.
+     */
+    public static Row of(Map<String, String> src, RowHeader hint) {
+        RowHeader header = hint != null && hint.matches(src) ? hint : new RowHeader(src.keySet());
+        String[] values = new String[header.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = src.get(header.name(i));
+        }
+        return new Row(header, values);
+    }
+
+    /**
+     * @param index column index.
+     * @return column value.
+     */
+    public String get(int index) {
+        return this.values[index];
+    }
+
+    /**
+     * @param name column name.
+     * @return column value, or null if not found.
+     */
+    public String get(String name) {
+        int index = this.header.indexOf(name);
+        return index < 0 ? null : this.values[index];
+    }
+
+    /**
+     * Copy as mutable map.
+     *
+     * @return Column,Value mapping.
+     */
+    public Map<String, String> asMap() {
+        Map<String, String> map = new HashMap<>(this.values.length * 2);
+        for (int i = 0; i < this.values.length; i++) {
+            map.put(this.header.name(i), this.values[i]);
+        }
+        return map;
+    }
+}
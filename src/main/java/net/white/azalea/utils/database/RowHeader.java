@@ -0,0 +1,95 @@
+package net.white.azalea.utils.database;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Column names that shared by rows of one data source.
+ *
+ * @author S.Yoshii
+ */
+public final class RowHeader {
+
+    /**
+     * Column names.
+     */
+    private final String[] names;
+
+    /**
+     * Column name to index.
+     */
+    private final Map<String, Integer> indexes;
+
+    private final int hash;
+
+    public RowHeader(String... names) {
+        this.names = names.clone();
+        this.indexes = new HashMap<>(names.length * 2);
+        for (int i = 0; i < names.length; i++) {
+            this.indexes.putIfAbsent(names[i], i);
+        }
+        this.hash = Arrays.hashCode(this.names);
+    }
+
+    public RowHeader(Collection<String> names) {
+        this(names.toArray(new String[0]));
+    }
+
+    /**
+     * @return column count.
+     */
+    public int size() {
+        return this.names.length;
+    }
+
+    /**
+     * @param index column index.
+     * @return column name.
+     */
+    public String name(int index) {
+        return this.names[index];
+    }
+
+    /**
+     * @param name column name.
+     * @return column index, or -1 if not found.
+     */
+    public int indexOf(String name) {
+        Integer index = this.indexes.get(name);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Check for same column set with map keys.
+     *
+     * @param row test target map.
+     * @return true if map has same keys.
+     */
+    public boolean matches(Map<String, ?> row) {
+        if (row.size() != this.names.length) return false;
+        for (String name : this.names) {
+            if (!row.containsKey(name)) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RowHeader)) return false;
+        RowHeader other = (RowHeader) o;
+        return this.hash == other.hash && Arrays.equals(this.names, other.names);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hash;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(this.names);
+    }
+}
@@ -0,0 +1,41 @@
+package net.white.azalea.utils.database;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Statement strategy that writes converted rows.
+ *
+ * @author S.Yoshii
+ */
+interface RowWriter extends AutoCloseable {
+
+    /**
+     * Write or buffer converted row.
+     *
+     * @param plan   plan of the row.
+     * @param values converted values in bind order.
+     * @throws SQLException if cannot insert.
+     */
+    void write(InsertPlan plan, Object[] values) throws SQLException;
+
+    /**
+     * Write buffered rows.
+     *
+     * @throws SQLException if cannot insert.
+     */
+    void flush() throws SQLException;
+
+    /**
+     * @return results of executed statements.
+     */
+    List<BatchResult> results();
+
+    /**
+     * Close cached statements.
+     *
+     * @throws SQLException if cannot close.
+     */
+    @Override
+    void close() throws SQLException;
+}
@@ -0,0 +1,50 @@
+package net.white.azalea.utils.database;
+
+import java.util.List;
+
+/**
+ * Result of table sync.
+ *
+ * @author S.Yoshii
+ */
+public final class SyncResult {
+
+    /**
+     * Rows that not existed in table.
+     */
+    public final int inserted;
+
+    /**
+     * Rows that had other values in table.
+     */
+    public final int updated;
+
+    /**
+     * Rows that not existed in data source.
+     */
+    public final int deleted;
+
+    /**
+     * Rows that had same values.
+     */
+    public final int unchanged;
+
+    /**
+     * Executed statements.
+     */
+    public final List<BatchResult> batches;
+
+    public SyncResult(int inserted, int updated, int deleted, int unchanged, List<BatchResult> batches) {
+        this.inserted = inserted;
+        this.updated = updated;
+        this.deleted = deleted;
+        this.unchanged = unchanged;
+        this.batches = batches;
+    }
+
+    @Override
+    public String toString() {
+        return "SyncResult{inserted=" + this.inserted + ", updated=" + this.updated
+                + ", deleted=" + this.deleted + ", unchanged=" + this.unchanged + "}";
+    }
+}
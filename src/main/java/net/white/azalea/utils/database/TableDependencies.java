@@ -0,0 +1,102 @@
+package net.white.azalea.utils.database;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * Foreign key dependencies between tables.
+ *
+ * @author S.Yoshii
+ */
+public final class TableDependencies {
+
+    private TableDependencies() {
+    }
+
+    /**
+     * Sort tables into levels by foreign keys.
+     *
+     * Tables of a level refer only to tables of former levels,
+     * so tables in same level can be loaded in parallel.
+     * Self references and references to tables that are not in {@code tables} are ignored.
+     * Table names are case insensitive, and returned as defined in database.
+     *
+     * @param connection Database connection for search schema.
+     * @param schemaName Database schema name.
+     * @param tables     target table names.
+     * @return tables by level, parents first.
+     * @throws SQLException if cannot read schemas, or tables have circular references.
+     */
+    public static List<List<String>> levels(
+            Connection connection,
+            String schemaName,
+            Collection<String> tables) throws SQLException {
+
+        DatabaseMetaData metaData = connection.getMetaData();
+        Map<String, String> actualNames = tableNames(metaData, schemaName);
+        Map<String, String> names = new LinkedHashMap<>();
+        for (String table : tables) {
+            String key = table.toLowerCase();
+            names.put(key, actualNames.getOrDefault(key, table));
+        }
+
+        // parent tables of each table.
+        Map<String, Set<String>> parents = new HashMap<>();
+        for (String key : names.keySet()) {
+            Set<String> refs = new HashSet<>();
+            try (ResultSet rs = metaData.getImportedKeys(null, schemaName, names.get(key))) {
+                while (rs.next()) {
+                    String parent = rs.getString("PKTABLE_NAME").toLowerCase();
+                    if (!parent.equals(key) && names.containsKey(parent)) {
+                        refs.add(parent);
+                    }
+                }
+            }
+            parents.put(key, refs);
+        }
+
+        // take tables that all parents are taken.
+        List<List<String>> levels = new ArrayList<>();
+        Set<String> done = new HashSet<>();
+        while (done.size() < names.size()) {
+            List<String> level = new ArrayList<>();
+            for (String key : names.keySet()) {
+                if (!done.contains(key) && done.containsAll(parents.get(key))) {
+                    level.add(key);
+                }
+            }
+            if (level.isEmpty()) {
+                List<String> rest = new ArrayList<>();
+                for (String key : names.keySet()) {
+                    if (!done.contains(key)) rest.add(names.get(key));
+                }
+                throw new SQLException("Circular foreign keys: " + rest);
+            }
+
+            done.addAll(level);
+            List<String> levelNames = new ArrayList<>();
+            for (String key : level) {
+                levelNames.add(names.get(key));
+            }
+            levels.add(levelNames);
+        }
+        return levels;
+    }
+
+    /**
+     * @return actual table names by lower case name.
+     */
+    private static Map<String, String> tableNames(DatabaseMetaData metaData, String schemaName) throws SQLException {
+        Map<String, String> tableNames = new HashMap<>();
+        try (ResultSet rs = metaData.getTables(null, schemaName, "%", null)) {
+            while (rs.next()) {
+                String tableName = rs.getString("TABLE_NAME");
+                tableNames.putIfAbsent(tableName.toLowerCase(), tableName);
+            }
+        }
+        return tableNames;
+    }
+}
@@ -1,15 +1,15 @@
 package net.white.azalea.utils.database;
 
 
-import net.white.azalea.utils.database.schema.ColumnDefinition;
 import net.white.azalea.utils.database.schema.TableDefinition;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * Insert to target table.
@@ -18,18 +18,39 @@ import java.util.stream.Collectors;
  */
 public class TableInserter {
 
+    /**
+     * Row handler that returns source row.
+     */
+    private static final RowFunction NOOP_ROW_FUNCTION = src -> src;
+
     private final Connection connection;
     private final String schema;
     private final TableSchemaCache tableSchemaCache;
+    private final LoadListener listener;
 
     public TableInserter(Connection connection, String schemaName) {
         this(connection, schemaName, TableSchemaCache.getInstance());
     }
 
     public TableInserter(Connection connection, String schemaName, TableSchemaCache tableSchemaCache) {
+        this(connection, schemaName, tableSchemaCache, LoadListener.NONE);
+    }
+
+    /**
+     * @param connection       target connection.
+     * @param schemaName       database schema name.
+     * @param tableSchemaCache table schema cache.
+     * @param listener         load listener that receives phase timings and totals.
+     */
+    public TableInserter(
+            Connection connection,
+            String schemaName,
+            TableSchemaCache tableSchemaCache,
+            LoadListener listener) {
         this.connection = connection;
         this.schema = schemaName;
         this.tableSchemaCache = tableSchemaCache;
+        this.listener = listener;
     }
 
     /**
@@ -46,7 +67,7 @@ public class TableInserter {
             final DataSource source,
             final ColumnConverter binder
     ) throws SQLException, IOException {
-        return this.insert(tableName, source, binder, new NoopBiFunction(), new NoopBiFunction());
+        return this.insert(tableName, source, binder, new NoopBiFunction<>(), new NoopBiFunction<>());
     }
 
     /**
@@ -69,80 +90,623 @@ public class TableInserter {
             ExceptBiFunction<String, Map<String, String>> prepare,
             ExceptBiFunction<Object, R> post
     ) throws SQLException, IOException {
+        return this.insert(tableName, source, binder, this.toRowFunction(prepare), post);
+    }
+
+    /**
+     * Insert to table with index based row handler.
+     *
+     * @param <R>       response type.
+     * @param tableName target table name.
+     * @param source    insert data sources.
+     * @param binder    data conversion adapter.
+     * @param prepare   event handler that call before insert sql execution.
+     * @param post      event handler that call after insert sql execution.
+     * @return insertion result.
+     * @throws SQLException Insertion failed or handler error.
+     * @throws IOException  Can't load data source.
+     */
+    public <R> List<R> insert(
+            String tableName,
+            DataSource source,
+            ColumnConverter binder,
+            RowFunction prepare,
+            ExceptBiFunction<Object, R> post
+    ) throws SQLException, IOException {
+        List<R> resultList = new ArrayList<>();
+        this.insertEach(tableName, source, binder, prepare,
+                (connection, values) -> resultList.add(post.apply(connection, values)));
+        return resultList;
+    }
+
+    /**
+     * Insert to table row by row, and pass each inserted row to sink without collecting.
+     *
+     * {@link ResultSink#NONE} skips building value maps.
+     *
+     * @param tableName target table name.
+     * @param source    insert data sources.
+     * @param binder    data conversion adapter.
+     * @param prepare   event handler that call before insert sql execution.
+     * @param sink      receiver of inserted values. called after each insert sql execution.
+     * @return inserted row count.
+     * @throws SQLException Insertion failed or handler error.
+     * @throws IOException  Can't load data source.
+     */
+    public long insertEach(
+            String tableName,
+            DataSource source,
+            ColumnConverter binder,
+            RowFunction prepare,
+            ResultSink sink
+    ) throws SQLException, IOException {
 
         TableDefinition tableDef =
                 this.tableSchemaCache.getTableDefinition(this.connection, this.schema, tableName);
-        List<ColumnDefinition> columns =
-                tableDef.columnDefinitions;
-        List<R> resultList =
-                new ArrayList<>();
-
-        for (Map<String, String> row : source.loadDataSource()) {
-
-            // prepare conversion.
-            Map<String, String> src = prepare.apply(this.connection, row);
-
-            // column values.
-            List<String> columnNames = this.toInsertColumnNames(binder, src);
-
-            // gen insert sql.
-            String sql = this.toInsertSql(tableDef, columnNames);
-
-            // execution
-            Map<String, Object> converted = new HashMap<>();
-            try(PreparedStatement ps = this.connection.prepareStatement(sql)) {
-                int idx = 1;
-                for (Map.Entry<String, String> entry : src.entrySet()) {
-                    Optional<ColumnDefinition> cdef = this.findColumn(columns, entry.getKey());
-                    if (cdef.isPresent()) {
-                        int dataType = cdef.get().dataType;
-                        Object conv = binder.conversion(dataType, cdef.get().columnType, entry.getValue());
-                        ps.setObject(idx++, conv, dataType);
-
-                        converted.put(entry.getKey(), conv);
-                    } else {
-                        throw new IOException("Unknown column definition: " + entry.getKey());
-                    }
+        InsertPlanCache plans =
+                new InsertPlanCache(tableDef, binder);
+        long count = 0;
+
+        LoadRecorder recorder =
+                new LoadRecorder(tableName, this.listener);
+
+        // statement cache by plan.
+        Map<InsertPlan, PreparedStatement> statements = new IdentityHashMap<>();
+        Throwable failure = null;
+        recorder.started();
+        try (DataCursor<Row> cursor = source.openRowCursor()) {
+            while (true) {
+                long start = recorder.start();
+                if (!cursor.hasNext()) break;
+                Row row = cursor.next();
+                recorder.read(start);
+
+                // prepare conversion.
+                start = recorder.start();
+                Row src = prepare.apply(row);
+
+                // column values.
+                InsertPlan plan = plans.find(src.header);
+                Object[] values = plan.convert(src);
+                recorder.converted(start);
+
+                // execution
+                PreparedStatement ps = statements.get(plan);
+                if (ps == null) {
+                    ps = this.connection.prepareStatement(plan.sql);
+                    statements.put(plan, ps);
                 }
+                start = recorder.start();
+                plan.bind(ps, 0, values);
+                recorder.bound(start);
+
+                start = recorder.start();
                 ps.executeUpdate();
+                recorder.executed(start, 1);
+                recorder.written();
+                count++;
+
+                if (sink != ResultSink.NONE) {
+                    sink.accept(this.connection, plan.toMap(values));
+                }
+            }
+            recorder.finished(cursor.bytesRead());
+        } catch (SQLException | IOException | RuntimeException | Error e) {
+            failure = e;
+            recorder.failed(e);
+            throw e;
+        } finally {
+            // close all statements, and keep primary error.
+            SQLException closeError = null;
+            for (PreparedStatement ps : statements.values()) {
+                try {
+                    ps.close();
+                } catch (SQLException e) {
+                    if (closeError == null) closeError = e;
+                    else closeError.addSuppressed(e);
+                }
+            }
+            if (closeError != null) {
+                if (failure == null) throw closeError;
+                failure.addSuppressed(closeError);
             }
+        }
+
+        return count;
+    }
+
+    /**
+     * Execute batched Insert query.
+     *
+     * @param tableName target table name.
+     * @param source    data source.
+     * @param binder    data conversion adapter.
+     * @param batchSize max rows in one JDBC batch.
+     * @return executed batch results.
+     * @throws SQLException if cannot insert.
+     * @throws IOException find undefined column name or cannot access data source.
+     */
+    public List<BatchResult> insertBatch(
+            final String tableName,
+            final DataSource source,
+            final ColumnConverter binder,
+            final int batchSize
+    ) throws SQLException, IOException {
+        return this.insertBatch(tableName, source, binder, NOOP_ROW_FUNCTION, batchSize);
+    }
 
-            // cache
-            resultList.add(post.apply(this.connection, converted));
+    /**
+     * Insert to table with JDBC batch.
+     *
+     * Rows that have same column set share one PreparedStatement,
+     * and executed each {@code batchSize} rows.
+     * Open batch is executed when column set is changed, so insertion order is same as data source.
+     *
+     * @param tableName target table name.
+     * @param source    insert data sources.
+     * @param binder    data conversion adapter.
+     * @param prepare   event handler that call before add row to batch.
+     * @param batchSize max rows in one JDBC batch.
+     * @return executed batch results.
+     * @throws SQLException Insertion failed or handler error.
+     * @throws IOException  Can't load data source.
+     */
+    public List<BatchResult> insertBatch(
+            String tableName,
+            DataSource source,
+            ColumnConverter binder,
+            ExceptBiFunction<String, Map<String, String>> prepare,
+            int batchSize
+    ) throws SQLException, IOException {
+        return this.insertBatch(tableName, source, binder, this.toRowFunction(prepare), batchSize);
+    }
+
+    /**
+     * Insert to table with JDBC batch and index based row handler.
+     *
+     * @param tableName target table name.
+     * @param source    insert data sources.
+     * @param binder    data conversion adapter.
+     * @param prepare   event handler that call before add row to batch.
+     * @param batchSize max rows in one JDBC batch.
+     * @return executed batch results.
+     * @throws SQLException Insertion failed or handler error.
+     * @throws IOException  Can't load data source.
+     * @see #insertBatch(String, DataSource, ColumnConverter, ExceptBiFunction, int)
+     */
+    public List<BatchResult> insertBatch(
+            String tableName,
+            DataSource source,
+            ColumnConverter binder,
+            RowFunction prepare,
+            int batchSize
+    ) throws SQLException, IOException {
+        LoadRecorder recorder = new LoadRecorder(tableName, this.listener);
+        BatchRowWriter writer = new BatchRowWriter(this.connection, batchSize, recorder);
+        this.load(tableName, source, binder, prepare, writer, recorder);
+        return writer.results();
+    }
+
+    /**
+     * Insert to table with JDBC batch, and read generated keys after each batch.
+     *
+     * Keys are read with {@link java.sql.Statement#getGeneratedKeys()} once per executed batch,
+     * and passed to sink in insertion order of the batch, by lower case column label.
+     * Batches are executed in data source order, so if driver returns one key row per inserted row,
+     * n-th keys belong to n-th row of data source. Keys have no reference to source row.
+     * Driver must support generated keys of batch.
+     *
+     * @param tableName  target table name.
+     * @param source     insert data sources.
+     * @param binder     data conversion adapter.
+     * @param prepare    event handler that call before add row to batch.
+     * @param batchSize  max rows in one JDBC batch.
+     * @param keyColumns generated key columns, or null or empty to let driver decide.
+     * @param keys       receiver of generated keys of each row.
+     * @return executed batch results.
+     * @throws SQLException Insertion failed or handler error.
+     * @throws IOException  Can't load data source.
+     */
+    public List<BatchResult> insertBatch(
+            String tableName,
+            DataSource source,
+            ColumnConverter binder,
+            RowFunction prepare,
+            int batchSize,
+            String[] keyColumns,
+            ResultSink keys
+    ) throws SQLException, IOException {
+        LoadRecorder recorder = new LoadRecorder(tableName, this.listener);
+        BatchRowWriter writer = new BatchRowWriter(this.connection, batchSize, recorder, keyColumns, keys);
+        this.load(tableName, source, binder, prepare, writer, recorder);
+        return writer.results();
+    }
+
+    /**
+     * Execute multi row Insert query.
+     *
+     * @param tableName         target table name.
+     * @param source            data source.
+     * @param binder            data conversion adapter.
+     * @param maxBindParameters max bind parameters in one statement.
+     * @return executed statement results.
+     * @throws SQLException if cannot insert.
+     * @throws IOException find undefined column name or cannot access data source.
+     * @see #insertMultiRow(String, DataSource, ColumnConverter, RowFunction, int)
+     */
+    public List<BatchResult> insertMultiRow(
+            final String tableName,
+            final DataSource source,
+            final ColumnConverter binder,
+            final int maxBindParameters
+    ) throws SQLException, IOException {
+        return this.insertMultiRow(tableName, source, binder, NOOP_ROW_FUNCTION, maxBindParameters);
+    }
+
+    /**
+     * Insert to table with multi row VALUES statement.
+     *
+     * @param tableName         target table name.
+     * @param source            insert data sources.
+     * @param binder            data conversion adapter.
+     * @param prepare           event handler that call before add row to statement.
+     * @param maxBindParameters max bind parameters in one statement.
+     * @return executed statement results.
+     * @throws SQLException Insertion failed or handler error.
+     * @throws IOException  Can't load data source.
+     * @see #insertMultiRow(String, DataSource, ColumnConverter, RowFunction, int)
+     */
+    public List<BatchResult> insertMultiRow(
+            String tableName,
+            DataSource source,
+            ColumnConverter binder,
+            ExceptBiFunction<String, Map<String, String>> prepare,
+            int maxBindParameters
+    ) throws SQLException, IOException {
+        return this.insertMultiRow(tableName, source, binder, this.toRowFunction(prepare), maxBindParameters);
+    }
+
+    /**
+     * Insert to table with multi row VALUES statement.
+     *
+     * Generates {@code INSERT INTO t (..) VALUES (..), (..), ...} for drivers
+     * that gain little from JDBC batch.
+     * Rows per statement is {@code maxBindParameters / column count} (at least 1).
+     * Like {@link #insertBatch(String, DataSource, ColumnConverter, RowFunction, int)},
+     * open statement is executed when column set is changed, so insertion order is same as data source.
+     *
+     * @param tableName         target table name.
+     * @param source            insert data sources.
+     * @param binder            data conversion adapter.
+     * @param prepare           event handler that call before add row to statement.
+     * @param maxBindParameters max bind parameters in one statement.
+     * @return executed statement results. each has one update count.
+     * @throws SQLException Insertion failed or handler error.
+     * @throws IOException  Can't load data source.
+     */
+    public List<BatchResult> insertMultiRow(
+            String tableName,
+            DataSource source,
+            ColumnConverter binder,
+            RowFunction prepare,
+            int maxBindParameters
+    ) throws SQLException, IOException {
+        LoadRecorder recorder = new LoadRecorder(tableName, this.listener);
+        MultiRowWriter writer = new MultiRowWriter(this.connection, maxBindParameters, recorder);
+        this.load(tableName, source, binder, prepare, writer, recorder);
+        return writer.results();
+    }
+
+    /**
+     * Execute batched Insert with commit interval and checkpoint.
+     *
+     * @param tableName      target table name.
+     * @param source         resumable data source.
+     * @param binder         data conversion adapter.
+     * @param batchSize      max rows in one JDBC batch.
+     * @param commitInterval rows between commits.
+     * @param checkpointFile checkpoint file path.
+     * @return executed batch results of this run.
+     * @throws SQLException if cannot insert.
+     * @throws IOException find undefined column name or cannot access data source or checkpoint.
+     * @see #insertResumable(String, ResumableDataSource, ColumnConverter, RowFunction, int, int, Path)
+     */
+    public List<BatchResult> insertResumable(
+            final String tableName,
+            final ResumableDataSource source,
+            final ColumnConverter binder,
+            final int batchSize,
+            final int commitInterval,
+            final Path checkpointFile
+    ) throws SQLException, IOException {
+        return this.insertResumable(
+                tableName, source, binder, NOOP_ROW_FUNCTION, batchSize, commitInterval, checkpointFile);
+    }
+
+    /**
+     * Insert to table with JDBC batch, commit each {@code commitInterval} rows and write checkpoint.
+     *
+     * Auto commit is disabled while loading, and restored after.
+     * If checkpoint file exists, rows that are already committed are skipped.
+     * On failure, uncommitted rows are rolled back and checkpoint file is kept for next run.
+     * On success, checkpoint file is removed.
+     *
+     * Checkpoint is written just after commit,
+     * so rows after last checkpoint may be inserted again if process dies between them.
+     *
+     * @param tableName      target table name.
+     * @param source         resumable data source.
+     * @param binder         data conversion adapter.
+     * @param prepare        event handler that call before add row to batch.
+     * @param batchSize      max rows in one JDBC batch.
+     * @param commitInterval rows between commits.
+     * @param checkpointFile checkpoint file path.
+     * @return executed batch results of this run.
+     * @throws SQLException Insertion failed or handler error.
+     * @throws IOException  Can't load data source, checkpoint is for other data source or cannot write checkpoint.
+     */
+    public List<BatchResult> insertResumable(
+            String tableName,
+            ResumableDataSource source,
+            ColumnConverter binder,
+            RowFunction prepare,
+            int batchSize,
+            int commitInterval,
+            Path checkpointFile
+    ) throws SQLException, IOException {
+        if (commitInterval < 1) throw new IllegalArgumentException("commitInterval must be positive: " + commitInterval);
+
+        // restart point.
+        String identity = source.identity();
+        Checkpoint checkpoint = Checkpoint.read(checkpointFile);
+        if (checkpoint == null) {
+            checkpoint = new Checkpoint(identity, tableName, 0, -1);
+        } else if (!checkpoint.matches(identity, tableName)) {
+            throw new IOException("Checkpoint is not for this load: " + checkpoint);
         }
 
-        return resultList;
+        TableDefinition tableDef =
+                this.tableSchemaCache.getTableDefinition(this.connection, this.schema, tableName);
+        InsertPlanCache plans =
+                new InsertPlanCache(tableDef, binder);
+
+        LoadRecorder recorder =
+                new LoadRecorder(tableName, this.listener);
+
+        boolean autoCommit = this.connection.getAutoCommit();
+        this.connection.setAutoCommit(false);
+        recorder.started();
+        try (BatchRowWriter writer = new BatchRowWriter(this.connection, batchSize, recorder);
+             ResumableDataSource.Cursor cursor = source.openRowCursor(checkpoint.rowIndex, checkpoint.offset)) {
+
+            long rowIndex = checkpoint.rowIndex;
+            while (true) {
+                long start = recorder.start();
+                if (!cursor.hasNext()) break;
+                Row row = cursor.next();
+                recorder.read(start);
+
+                // prepare conversion.
+                start = recorder.start();
+                Row src = prepare.apply(row);
+
+                // column values.
+                InsertPlan plan = plans.find(src.header);
+                Object[] values = plan.convert(src);
+                recorder.converted(start);
+
+                writer.write(plan, values);
+                recorder.written();
+
+                if (++rowIndex % commitInterval == 0) {
+                    writer.flush();
+                    this.connection.commit();
+                    new Checkpoint(identity, tableName, rowIndex, cursor.position()).write(checkpointFile);
+                }
+            }
+
+            // rest rows.
+            writer.flush();
+            this.connection.commit();
+            Files.deleteIfExists(checkpointFile);
+            recorder.finished(cursor.bytesRead());
+            return writer.results();
+        } catch (SQLException | IOException | RuntimeException | Error e) {
+            recorder.failed(e);
+            try {
+                this.connection.rollback();
+            } catch (SQLException re) {
+                e.addSuppressed(re);
+            }
+            throw e;
+        } finally {
+            this.connection.setAutoCommit(autoCommit);
+        }
     }
 
-    private String toInsertSql(TableDefinition tableDef, List<String> columnNames) {
-        String columnDef = String.join(", ", columnNames);
-        String binds = columnNames.stream().map(c -> "?").collect(Collectors.joining(","));
-        return String.format(
-                "INSERT INTO %s (%s) VALUES (%s)",
-                tableDef.tableName, columnDef, binds
-        );
+    /**
+     * Sync table to data source by primary key.
+     *
+     * @param tableName     target table name.
+     * @param source        data source.
+     * @param binder        data conversion adapter.
+     * @param batchSize     max rows in one JDBC batch.
+     * @param deleteMissing delete rows that not in data source.
+     * @return row counts and executed batch results.
+     * @throws SQLException if cannot write, or table has no primary key.
+     * @throws IOException find undefined column name or cannot access data source.
+     * @see #sync(String, DataSource, ColumnConverter, RowFunction, int, boolean)
+     */
+    public SyncResult sync(
+            final String tableName,
+            final DataSource source,
+            final ColumnConverter binder,
+            final int batchSize,
+            final boolean deleteMissing
+    ) throws SQLException, IOException {
+        return this.sync(tableName, source, binder, NOOP_ROW_FUNCTION, batchSize, deleteMissing);
     }
 
-    private List<String> toInsertColumnNames(ColumnConverter binder, Map<String, String> src) {
-        List<String> columnNames = new ArrayList<>(src.size());
+    /**
+     * Sync table to data source by primary key, and write only changed rows.
+     *
+     * Rows that not in table are inserted, rows that have other values are updated,
+     * and rows that have same values are skipped.
+     * Only columns in data source are compared and updated.
+     * If {@code deleteMissing}, table rows that not in data source are deleted.
+     *
+     * Data source rows are kept in memory while comparing,
+     * and existing rows are read with one SELECT.
+     * Statements are plain UPDATE / INSERT / DELETE, so any dialect is supported.
+     *
+     * @param tableName     target table name.
+     * @param source        data source.
+     * @param binder        data conversion adapter.
+     * @param prepare       event handler that call before conversion.
+     * @param batchSize     max rows in one JDBC batch.
+     * @param deleteMissing delete rows that not in data source.
+     * @return row counts and executed batch results.
+     * @throws SQLException Query failed, handler error or table has no primary key.
+     * @throws IOException  Can't load data source, or rows have duplicated or missing primary key.
+     */
+    public SyncResult sync(
+            String tableName,
+            DataSource source,
+            ColumnConverter binder,
+            RowFunction prepare,
+            int batchSize,
+            boolean deleteMissing
+    ) throws SQLException, IOException {
+        TableDefinition tableDef =
+                this.tableSchemaCache.getTableDefinition(this.connection, this.schema, tableName);
+        LoadRecorder recorder =
+                new LoadRecorder(tableName, this.listener);
+
+        recorder.started();
+        try {
+            TableSynchronizer synchronizer = new TableSynchronizer(this.connection, this.schema, tableDef, binder);
+            return synchronizer.sync(source, prepare, batchSize, deleteMissing, recorder);
+        } catch (SQLException | IOException | RuntimeException | Error e) {
+            recorder.failed(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Convert rows and pass to writer.
+     *
+     * Values of {@link ConvertedDataSource} are passed without conversion if there is no handler
+     * and converter configuration is known.
+     *
+     * @param tableName target table name.
+     * @param source    insert data sources.
+     * @param binder    data conversion adapter.
+     * @param prepare   event handler that call before write row.
+     * @param writer    statement strategy. closed by this method.
+     * @param recorder  phase recorder that shared with writer.
+     * @throws SQLException Insertion failed or handler error.
+     * @throws IOException  Can't load data source.
+     */
+    private void load(
+            String tableName,
+            DataSource source,
+            ColumnConverter binder,
+            RowFunction prepare,
+            RowWriter writer,
+            LoadRecorder recorder
+    ) throws SQLException, IOException {
+
+        TableDefinition tableDef =
+                this.tableSchemaCache.getTableDefinition(this.connection, this.schema, tableName);
+        InsertPlanCache plans =
+                new InsertPlanCache(tableDef, binder);
+
+        recorder.started();
+        if (prepare == NOOP_ROW_FUNCTION && source instanceof ConvertedDataSource && binder.configuration() != null) {
+            this.loadConverted(tableDef, (ConvertedDataSource) source, binder, plans, writer, recorder);
+            return;
+        }
+        try (RowWriter w = writer; DataCursor<Row> cursor = source.openRowCursor()) {
+            while (true) {
+                long start = recorder.start();
+                if (!cursor.hasNext()) break;
+                Row row = cursor.next();
+                recorder.read(start);
+
+                // prepare conversion.
+                start = recorder.start();
+                Row src = prepare.apply(row);
+
+                // column values.
+                InsertPlan plan = plans.find(src.header);
+                Object[] values = plan.convert(src);
+                recorder.converted(start);
+
+                w.write(plan, values);
+                recorder.written();
+            }
 
-        // convert
-        for (Map.Entry<String, String> entry : src.entrySet()) {
-            columnNames.add(binder.columnNameWrapper(entry.getKey()));
+            // rest rows.
+            w.flush();
+            recorder.finished(cursor.bytesRead());
+        } catch (SQLException | IOException | RuntimeException | Error e) {
+            recorder.failed(e);
+            throw e;
         }
-        return columnNames;
     }
 
-    private Optional<ColumnDefinition> findColumn(List<ColumnDefinition> columns, String key) {
-        for (ColumnDefinition c : columns) {
-            String lowerName = c.columnName.toLowerCase();
-            if (lowerName.equals(key.toLowerCase())) {
-                return Optional.of(c);
+    /**
+     * Pass converted values to writer.
+     *
+     * @param tableDef target table definition.
+     * @param source   data source that has converted values.
+     * @param binder   data conversion adapter.
+     * @param plans    plans of the table.
+     * @param writer   statement strategy. closed by this method.
+     * @param recorder phase recorder that shared with writer.
+     * @throws SQLException Insertion failed.
+     * @throws IOException  Can't load data source.
+     */
+    private void loadConverted(
+            TableDefinition tableDef,
+            ConvertedDataSource source,
+            ColumnConverter binder,
+            InsertPlanCache plans,
+            RowWriter writer,
+            LoadRecorder recorder
+    ) throws SQLException, IOException {
+        try (RowWriter w = writer; ConvertedDataSource.Cursor cursor = source.openValueCursor(tableDef, binder)) {
+            while (true) {
+                long start = recorder.start();
+                if (!cursor.hasNext()) break;
+                Object[] values = cursor.next();
+                recorder.read(start);
+
+                w.write(plans.find(cursor.header()), values);
+                recorder.written();
             }
+
+            // rest rows.
+            w.flush();
+            recorder.finished(cursor.bytesRead());
+        } catch (SQLException | IOException | RuntimeException | Error e) {
+            recorder.failed(e);
+            throw e;
         }
-        return Optional.empty();
     }
 
+    /**
+     * Adapt Map based handler to row handler.
+     *
+     * @param prepare Map based handler.
+     * @return row handler.
+     */
+    private RowFunction toRowFunction(final ExceptBiFunction<String, Map<String, String>> prepare) {
+        if (prepare instanceof NoopBiFunction) {
+            return NOOP_ROW_FUNCTION;
+        }
+        return src -> Row.of(prepare.apply(this.connection, src.asMap()), src.header);
+    }
 
     /**
      * API handler interface.
@@ -163,6 +727,42 @@ public class TableInserter {
         R apply(Connection connection, Map<String, T> src) throws SQLException;
     }
 
+    /**
+     * Index based row handler interface.
+     */
+    public interface RowFunction {
+
+        /**
+         * Row value convert function.
+         *
+         * @param src single row value.
+         * @return converted row.
+         * @throws SQLException throw if you use connection and failure.
+         */
+        Row apply(Row src) throws SQLException;
+    }
+
+    /**
+     * Receiver of inserted rows.
+     */
+    public interface ResultSink {
+
+        /**
+         * Sink that receives nothing.
+         */
+        ResultSink NONE = (connection, values) -> {
+        };
+
+        /**
+         * Receive one row.
+         *
+         * @param connection connection value.
+         * @param values     column values by lower case column name.
+         * @throws SQLException throw if you use connection and failure.
+         */
+        void accept(Connection connection, Map<String, Object> values) throws SQLException;
+    }
+
     /**
      * NOOP function.
      *
@@ -0,0 +1,316 @@
+package net.white.azalea.utils.database;
+
+import java.sql.*;
+import java.util.*;
+
+/**
+ * Reset tables that written through one connection.
+ *
+ * Register this as listener of {@link TableInserter}, then loaded tables are tracked.
+ * {@link #reset()} empties only tracked tables:
+ * <ul>
+ * <li>H2 and MySQL: batched TRUNCATE with referential integrity disabled.</li>
+ * <li>PostgreSQL: one TRUNCATE of all tables, without CASCADE.
+ * fails if a table that is not tracked references a tracked table, then call {@link #track(String)} for it.</li>
+ * <li>Others: batched DELETE, children first.</li>
+ * </ul>
+ * In {@link Mode#HIGH_WATER_MARK}, max value of identity column is recorded when table is first tracked,
+ * and reset deletes only rows above it, so rows that existed before are kept.
+ *
+ * H2 {@code SET REFERENTIAL_INTEGRITY} affects whole database while resetting.
+ *
+ * @author S.Yoshii
+ */
+public final class TableReset implements LoadListener {
+
+    /**
+     * How to reset tables.
+     */
+    public enum Mode {
+        /**
+         * Delete all rows.
+         */
+        TRUNCATE,
+
+        /**
+         * Delete rows above recorded identity value. tables without identity column are truncated.
+         */
+        HIGH_WATER_MARK
+    }
+
+    private final Connection connection;
+    private final String schema;
+    private final Mode mode;
+
+    /**
+     * Tracked tables by lower case name.
+     */
+    private final Map<String, Mark> marks = new LinkedHashMap<>();
+
+    private Dialect dialect;
+
+    public TableReset(Connection connection, String schemaName) {
+        this(connection, schemaName, Mode.TRUNCATE);
+    }
+
+    /**
+     * @param connection connection that tables are written through.
+     * @param schemaName database schema name.
+     * @param mode       how to reset tables.
+     */
+    public TableReset(Connection connection, String schemaName, Mode mode) {
+        this.connection = connection;
+        this.schema = schemaName;
+        this.mode = mode;
+    }
+
+    /**
+     * Track loaded table.
+     *
+     * If high water mark cannot be read, the table is not reset and {@link #reset()} throws the error.
+     *
+     * @param table target table name.
+     */
+    @Override
+    public void loadStarted(String table) {
+        try {
+            this.track(table);
+        } catch (SQLException e) {
+            synchronized (this) {
+                this.marks.putIfAbsent(table.toLowerCase(), new Mark(table, e));
+            }
+        }
+    }
+
+    /**
+     * Track table that written without {@link TableInserter}.
+     *
+     * Do nothing if table is already tracked.
+     *
+     * @param table target table name.
+     * @throws SQLException if cannot read high water mark.
+     */
+    public synchronized void track(String table) throws SQLException {
+        String key = table.toLowerCase();
+        if (this.marks.containsKey(key)) return;
+
+        String column = this.mode == Mode.HIGH_WATER_MARK ? this.identityColumn(table) : null;
+        Long value = null;
+        if (column != null) {
+            try (Statement st = this.connection.createStatement();
+                 ResultSet rs = st.executeQuery(String.format("SELECT MAX(%s) FROM %s", column, table))) {
+                if (rs.next()) {
+                    long max = rs.getLong(1);
+                    if (!rs.wasNull()) value = max;
+                }
+            }
+        }
+        this.marks.put(key, new Mark(table, column, value));
+    }
+
+    /**
+     * @return tracked table names.
+     */
+    public synchronized List<String> tables() {
+        List<String> tables = new ArrayList<>();
+        for (Mark mark : this.marks.values()) {
+            tables.add(mark.table);
+        }
+        return tables;
+    }
+
+    /**
+     * Reset tracked tables, and forget them.
+     *
+     * Tables that high water mark could not be read are not reset, and reported as error after others are reset.
+     *
+     * @throws SQLException if cannot reset, tables are still tracked. or if some tables are not reset.
+     */
+    public synchronized void reset() throws SQLException {
+        if (this.marks.isEmpty()) return;
+        if (this.dialect == null) {
+            this.dialect = Dialect.of(this.connection.getMetaData().getDatabaseProductName());
+        }
+
+        // keep rows of tables that mark is unknown.
+        SQLException markError = null;
+        Set<String> keys = new LinkedHashSet<>();
+        for (Map.Entry<String, Mark> entry : this.marks.entrySet()) {
+            Mark mark = entry.getValue();
+            if (mark.error == null) {
+                keys.add(entry.getKey());
+                continue;
+            }
+            if (markError == null) {
+                markError = new SQLException("Cannot read high water mark, table is not reset: " + mark.table, mark.error);
+            } else {
+                markError.addSuppressed(new SQLException(
+                        "Cannot read high water mark, table is not reset: " + mark.table, mark.error));
+            }
+        }
+
+        if (keys.isEmpty()) {
+            this.marks.clear();
+            throw markError;
+        }
+
+        // children first if foreign keys are checked.
+        List<Mark> targets = new ArrayList<>();
+        if (this.dialect.disableChecks == null) {
+            List<List<String>> levels = TableDependencies.levels(this.connection, this.schema, keys);
+            for (int i = levels.size() - 1; i >= 0; i--) {
+                for (String table : levels.get(i)) {
+                    targets.add(this.marks.get(table.toLowerCase()));
+                }
+            }
+        } else {
+            for (String key : keys) {
+                targets.add(this.marks.get(key));
+            }
+        }
+
+        try (Statement st = this.connection.createStatement()) {
+            if (this.dialect.disableChecks != null) st.execute(this.dialect.disableChecks);
+            try {
+                // PostgreSQL truncates all tables in one statement before deletes.
+                List<String> truncates = new ArrayList<>();
+                List<String> statements = new ArrayList<>();
+                for (Mark mark : targets) {
+                    if (mark.column != null) {
+                        statements.add(mark.value == null
+                                ? "DELETE FROM " + mark.table
+                                : String.format("DELETE FROM %s WHERE %s > %d", mark.table, mark.column, mark.value));
+                    } else if (this.dialect == Dialect.POSTGRESQL) {
+                        truncates.add(mark.table);
+                    } else if (this.dialect.truncate) {
+                        statements.add("TRUNCATE TABLE " + mark.table);
+                    } else {
+                        statements.add("DELETE FROM " + mark.table);
+                    }
+                }
+                if (!truncates.isEmpty()) {
+                    statements.add(0, "TRUNCATE TABLE " + String.join(", ", truncates));
+                }
+
+                for (String sql : statements) {
+                    st.addBatch(sql);
+                }
+                st.executeBatch();
+            } catch (SQLException | RuntimeException e) {
+                // keep primary error.
+                if (this.dialect.enableChecks != null) {
+                    try {
+                        st.execute(this.dialect.enableChecks);
+                    } catch (SQLException re) {
+                        e.addSuppressed(re);
+                    }
+                }
+                throw e;
+            }
+            if (this.dialect.enableChecks != null) st.execute(this.dialect.enableChecks);
+        }
+        this.marks.clear();
+        if (markError != null) throw markError;
+    }
+
+    /**
+     * Find identity column, or single integer primary key.
+     *
+     * @return column name, or null if not found.
+     */
+    private String identityColumn(String table) throws SQLException {
+        DatabaseMetaData metaData = this.connection.getMetaData();
+        Map<String, String> integers = new HashMap<>();
+        try (ResultSet rs = metaData.getColumns(null, this.schema, table, "%")) {
+            while (rs.next()) {
+                String column = rs.getString("COLUMN_NAME");
+                String autoIncrement;
+                try {
+                    autoIncrement = rs.getString("IS_AUTOINCREMENT");
+                } catch (SQLException e) {
+                    // before JDBC 4.1.
+                    autoIncrement = null;
+                }
+                if ("YES".equalsIgnoreCase(autoIncrement)) return column;
+
+                switch (rs.getInt("DATA_TYPE")) {
+                    case Types.TINYINT:
+                    case Types.SMALLINT:
+                    case Types.INTEGER:
+                    case Types.BIGINT:
+                        integers.put(column.toLowerCase(), column);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+
+        List<String> keys = TableSynchronizer.primaryKeys(this.connection, this.schema, table);
+        return keys.size() == 1 ? integers.get(keys.get(0)) : null;
+    }
+
+    /**
+     * Tracked table and its high water mark.
+     */
+    private static final class Mark {
+        private final String table;
+
+        /**
+         * Identity column, or null to truncate.
+         */
+        private final String column;
+
+        /**
+         * Max identity value, or null if table was empty.
+         */
+        private final Long value;
+
+        /**
+         * Error of reading high water mark, or null if read.
+         */
+        private final SQLException error;
+
+        private Mark(String table, String column, Long value) {
+            this.table = table;
+            this.column = column;
+            this.value = value;
+            this.error = null;
+        }
+
+        private Mark(String table, SQLException error) {
+            this.table = table;
+            this.column = null;
+            this.value = null;
+            this.error = error;
+        }
+    }
+
+    /**
+     * Statements of each database.
+     */
+    private enum Dialect {
+        H2("SET REFERENTIAL_INTEGRITY FALSE", "SET REFERENTIAL_INTEGRITY TRUE", true),
+        MYSQL("SET FOREIGN_KEY_CHECKS = 0", "SET FOREIGN_KEY_CHECKS = 1", true),
+        POSTGRESQL(null, null, true),
+        OTHER(null, null, false);
+
+        private final String disableChecks;
+        private final String enableChecks;
+        private final boolean truncate;
+
+        Dialect(String disableChecks, String enableChecks, boolean truncate) {
+            this.disableChecks = disableChecks;
+            this.enableChecks = enableChecks;
+            this.truncate = truncate;
+        }
+
+        private static Dialect of(String productName) {
+            String name = productName == null ? "" : productName.toLowerCase();
+            if (name.contains("h2")) return H2;
+            if (name.contains("mysql") || name.contains("mariadb")) return MYSQL;
+            if (name.contains("postgresql")) return POSTGRESQL;
+            return OTHER;
+        }
+    }
+}
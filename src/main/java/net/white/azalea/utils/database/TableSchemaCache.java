@@ -4,15 +4,20 @@ import net.white.azalea.utils.database.schema.ColumnDefinition;
 import net.white.azalea.utils.database.schema.TableDefinition;
 
 import java.sql.*;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Read and cache table schema information.
  *
+ * Tables are keyed by catalog, schema and table name (case insensitive),
+ * and safe to share between threads.
+ *
  * @author S.Yoshii
  */
-class TableSchemaCache {
+public class TableSchemaCache {
 
     /**
      * Singleton instance.
@@ -24,17 +29,33 @@ class TableSchemaCache {
      *
      * @return TableSchemaCache class instance.
      */
-    static TableSchemaCache getInstance() {
+    public static TableSchemaCache getInstance() {
         return $_INSTANCE;
     }
 
     /**
-     * Table list.
+     * Table definitions by key.
      */
-    private final List<TableDefinition> tableDefinitions;
+    private final ConcurrentMap<TableKey, CachedTable> tableDefinitions;
+
+    /**
+     * Time to live of cached table in nanos. 0 or less means never expire.
+     */
+    private final long ttlNanos;
 
     TableSchemaCache() {
-        this.tableDefinitions = new ArrayList<>();
+        this(0, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Create cache that expire tables.
+     *
+     * @param ttl  time to live of cached table. 0 or less means never expire.
+     * @param unit unit of ttl.
+     */
+    public TableSchemaCache(long ttl, TimeUnit unit) {
+        this.tableDefinitions = new ConcurrentHashMap<>();
+        this.ttlNanos = unit.toNanos(ttl);
     }
 
     /**
@@ -47,31 +68,180 @@ class TableSchemaCache {
      * @throws SQLException throw if cannot read schemas.
      */
     TableDefinition getTableDefinition(Connection connection, String schemaName, String tableName) throws SQLException {
+        return this.getTableDefinition(connection, null, schemaName, tableName);
+    }
+
+    /**
+     * Find or load table definition.
+     *
+     * @param connection  Database connection for search schema.
+     * @param catalogName Database catalog name. nullable.
+     * @param schemaName  Database schema name.
+     * @param tableName   Table name that searching for.
+     * @return TableDefinition instance if it find.
+     * @throws SQLException throw if cannot read schemas.
+     */
+    public TableDefinition getTableDefinition(
+            Connection connection,
+            String catalogName,
+            String schemaName,
+            String tableName) throws SQLException {
 
         // Search from cache.
-        for (TableDefinition def : this.tableDefinitions) {
-            if (def.isSameName(tableName)) {
-                return def;
-            }
+        TableKey key = new TableKey(catalogName, schemaName, tableName);
+        CachedTable cached = this.tableDefinitions.get(key);
+        if (cached != null && !this.isExpired(cached)) {
+            return cached.table;
         }
 
         // Read new schema if not known
         TableDefinition table = new TableDefinition(schemaName, tableName);
         DatabaseMetaData metaData = connection.getMetaData();
-        try (ResultSet rs = metaData.getColumns(null, schemaName, tableName, "%")) {
+        try (ResultSet rs = metaData.getColumns(catalogName, schemaName, tableName, "%")) {
             while (rs.next()) {
-                table.columnDefinitions.add(new ColumnDefinition(
-                        rs.getString("COLUMN_NAME"),
-                        rs.getString("TYPE_NAME"),
-                        rs.getInt("DATA_TYPE"),
-                        rs.getInt("COLUMN_SIZE")
-                ));
+                table.columnDefinitions.add(toColumn(rs));
             }
         }
 
         // cache
-        this.tableDefinitions.add(table);
-
+        CachedTable loaded = new CachedTable(table);
+        if (cached == null) {
+            CachedTable other = this.tableDefinitions.putIfAbsent(key, loaded);
+            return other == null ? table : other.table;
+        }
+        this.tableDefinitions.put(key, loaded);
         return table;
     }
+
+    /**
+     * Load all tables of schema with one metadata query.
+     *
+     * Tables that have same name in multiple schemas matched by schema pattern are not cached.
+     *
+     * @param connection  Database connection for search schema.
+     * @param catalogName Database catalog name. nullable.
+     * @param schemaName  Database schema name.
+     * @return count of cached tables.
+     * @throws SQLException throw if cannot read schemas.
+     */
+    public int prefetch(Connection connection, String catalogName, String schemaName) throws SQLException {
+        Map<String, TableDefinition> tables = new LinkedHashMap<>();
+        Map<String, String> owners = new HashMap<>();
+        Set<String> ambiguous = new HashSet<>();
+        DatabaseMetaData metaData = connection.getMetaData();
+        try (ResultSet rs = metaData.getColumns(catalogName, schemaName, "%", "%")) {
+            while (rs.next()) {
+                String tableName = rs.getString("TABLE_NAME");
+                String owner = rs.getString("TABLE_CAT") + "." + rs.getString("TABLE_SCHEM");
+                String known = owners.putIfAbsent(tableName, owner);
+                if (known != null && !known.equals(owner)) {
+                    ambiguous.add(tableName);
+                    continue;
+                }
+
+                tables.computeIfAbsent(tableName, n -> new TableDefinition(schemaName, n))
+                        .columnDefinitions.add(toColumn(rs));
+            }
+        }
+
+        int count = 0;
+        for (TableDefinition table : tables.values()) {
+            if (ambiguous.contains(table.tableName)) continue;
+
+            this.tableDefinitions.put(new TableKey(catalogName, schemaName, table.tableName), new CachedTable(table));
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Remove cached table.
+     *
+     * @param catalogName Database catalog name. nullable.
+     * @param schemaName  Database schema name.
+     * @param tableName   Table name.
+     */
+    public void invalidate(String catalogName, String schemaName, String tableName) {
+        this.tableDefinitions.remove(new TableKey(catalogName, schemaName, tableName));
+    }
+
+    /**
+     * Remove cached tables of schema.
+     *
+     * @param catalogName Database catalog name. nullable.
+     * @param schemaName  Database schema name.
+     */
+    public void invalidateSchema(String catalogName, String schemaName) {
+        TableKey schemaKey = new TableKey(catalogName, schemaName, "");
+        this.tableDefinitions.keySet().removeIf(key -> key.isSameSchema(schemaKey));
+    }
+
+    /**
+     * Remove all cached tables.
+     */
+    public void invalidateAll() {
+        this.tableDefinitions.clear();
+    }
+
+    private boolean isExpired(CachedTable cached) {
+        return this.ttlNanos > 0 && System.nanoTime() - cached.loadedAt > this.ttlNanos;
+    }
+
+    private static ColumnDefinition toColumn(ResultSet rs) throws SQLException {
+        return new ColumnDefinition(
+                rs.getString("COLUMN_NAME"),
+                rs.getString("TYPE_NAME"),
+                rs.getInt("DATA_TYPE"),
+                rs.getInt("COLUMN_SIZE")
+        );
+    }
+
+    /**
+     * Case insensitive catalog, schema and table name.
+     */
+    private static final class TableKey {
+        private final String catalog;
+        private final String schema;
+        private final String table;
+
+        private TableKey(String catalog, String schema, String table) {
+            this.catalog = normalize(catalog);
+            this.schema = normalize(schema);
+            this.table = normalize(table);
+        }
+
+        private static String normalize(String name) {
+            return name == null ? "" : name.toLowerCase();
+        }
+
+        private boolean isSameSchema(TableKey other) {
+            return this.catalog.equals(other.catalog) && this.schema.equals(other.schema);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof TableKey)) return false;
+            TableKey other = (TableKey) o;
+            return this.isSameSchema(other) && this.table.equals(other.table);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.catalog, this.schema, this.table);
+        }
+    }
+
+    /**
+     * Table definition and its load time.
+     */
+    private static final class CachedTable {
+        private final TableDefinition table;
+        private final long loadedAt;
+
+        private CachedTable(TableDefinition table) {
+            this.table = table;
+            this.loadedAt = System.nanoTime();
+        }
+    }
 }
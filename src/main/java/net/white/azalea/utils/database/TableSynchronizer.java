@@ -0,0 +1,374 @@
+package net.white.azalea.utils.database;
+
+import net.white.azalea.utils.database.schema.ColumnDefinition;
+import net.white.azalea.utils.database.schema.TableDefinition;
+import org.apache.commons.codec.binary.Hex;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+
+/**
+ * Write only difference between data source and table.
+ *
+ * Data source rows are kept in memory by primary key with hash of their values,
+ * then existing rows are read once and compared by hash.
+ * Columns that not in a source row are not compared nor updated.
+ *
+ * @author S.Yoshii
+ */
+final class TableSynchronizer {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final Connection connection;
+    private final TableDefinition tableDef;
+    private final ColumnConverter binder;
+    private final InsertPlanCache plans;
+
+    /**
+     * Column definitions by lower case name.
+     */
+    private final Map<String, ColumnDefinition> columns = new HashMap<>();
+
+    /**
+     * Primary key columns in lower case, and their definitions.
+     */
+    private final List<String> keys;
+    private final List<ColumnDefinition> keyColumns;
+
+    /**
+     * Update plans by insert plan.
+     */
+    private final Map<InsertPlan, UpdatePlan> updatePlans = new IdentityHashMap<>();
+
+    TableSynchronizer(Connection connection, String schemaName, TableDefinition tableDef, ColumnConverter binder)
+            throws SQLException {
+        this.connection = connection;
+        this.tableDef = tableDef;
+        this.binder = binder;
+        this.plans = new InsertPlanCache(tableDef, binder);
+        this.keys = primaryKeys(connection, schemaName, tableDef.tableName);
+        if (this.keys.isEmpty()) {
+            throw new SQLException("No primary key: " + tableDef.tableName);
+        }
+
+        for (ColumnDefinition c : tableDef.columnDefinitions) {
+            this.columns.put(c.columnName.toLowerCase(), c);
+        }
+        this.keyColumns = new ArrayList<>();
+        for (String key : this.keys) {
+            this.keyColumns.add(this.columns.get(key));
+        }
+    }
+
+    /**
+     * Sync table to data source.
+     *
+     * @param source        data source.
+     * @param prepare       event handler that call before conversion.
+     * @param batchSize     max rows in one JDBC batch.
+     * @param deleteMissing delete rows that not in data source.
+     * @param recorder      phase recorder.
+     * @return counts and executed statements.
+     * @throws SQLException Query failed or handler error.
+     * @throws IOException  Can't load data source, or rows have duplicated or missing primary key.
+     */
+    SyncResult sync(
+            DataSource source,
+            TableInserter.RowFunction prepare,
+            int batchSize,
+            boolean deleteMissing,
+            LoadRecorder recorder) throws SQLException, IOException {
+
+        // source rows by key.
+        Map<List<String>, Pending> pendings = new LinkedHashMap<>();
+        Set<String> columns = new LinkedHashSet<>(this.keys);
+        long bytes;
+        try (DataCursor<Row> cursor = source.openRowCursor()) {
+            while (true) {
+                long start = recorder.start();
+                if (!cursor.hasNext()) break;
+                Row row = cursor.next();
+                recorder.read(start);
+
+                start = recorder.start();
+                Row src = prepare.apply(row);
+                InsertPlan plan = this.plans.find(src.header);
+                Pending pending = new Pending(plan, plan.convert(src));
+                recorder.converted(start);
+
+                List<String> key = this.sourceKey(pending);
+                if (pendings.put(key, pending) != null) {
+                    throw new IOException("Duplicated primary key: " + key);
+                }
+                for (int i = 0; i < src.header.size(); i++) {
+                    columns.add(src.header.name(i).toLowerCase());
+                }
+            }
+            bytes = cursor.bytesRead();
+        }
+
+        // compare with existing rows.
+        List<String> columnList = new ArrayList<>(columns);
+        Map<InsertPlan, int[]> selectIndexes = new IdentityHashMap<>();
+        List<Object[]> deletes = new ArrayList<>();
+        try (Statement st = this.connection.createStatement();
+             ResultSet rs = st.executeQuery(this.selectSql(columnList))) {
+            Object[] keyValues = new Object[this.keys.size()];
+            List<String> key = new ArrayList<>(this.keys.size());
+            while (rs.next()) {
+                key.clear();
+                for (int i = 0; i < keyValues.length; i++) {
+                    keyValues[i] = rs.getObject(i + 1);
+                    key.add(normalize(keyValues[i], this.keyColumns.get(i).dataType));
+                }
+
+                Pending pending = pendings.get(key);
+                if (pending == null) {
+                    if (deleteMissing) deletes.add(keyValues.clone());
+                    continue;
+                }
+
+                int[] indexes = selectIndexes.get(pending.plan);
+                if (indexes == null) {
+                    indexes = new int[pending.plan.slots.length];
+                    for (int i = 0; i < indexes.length; i++) {
+                        indexes[i] = columnList.indexOf(pending.plan.header.name(i).toLowerCase()) + 1;
+                    }
+                    selectIndexes.put(pending.plan, indexes);
+                }
+
+                long hash = FNV_OFFSET;
+                for (int i = 0; i < indexes.length; i++) {
+                    hash = hash(hash, normalize(rs.getObject(indexes[i]), pending.plan.slots[i].column.dataType));
+                }
+                pending.exists = true;
+                pending.changed = hash != pending.hash;
+            }
+        }
+
+        // write difference.
+        int inserted = 0;
+        int updated = 0;
+        int unchanged = 0;
+        try (BatchRowWriter writer = new BatchRowWriter(this.connection, batchSize, recorder)) {
+            if (!deletes.isEmpty()) {
+                InsertPlan deletePlan = this.deletePlan();
+                for (Object[] keyValues : deletes) {
+                    writer.write(deletePlan, keyValues);
+                }
+                // delete first, eg. for changed key with same unique value.
+                writer.flush();
+            }
+
+            for (Pending pending : pendings.values()) {
+                if (!pending.exists) {
+                    writer.write(pending.plan, pending.values);
+                    recorder.written();
+                    inserted++;
+                } else if (pending.changed) {
+                    UpdatePlan update = this.updatePlan(pending.plan);
+                    writer.write(update.plan, update.reorder(pending.values));
+                    recorder.written();
+                    updated++;
+                } else {
+                    unchanged++;
+                }
+            }
+
+            writer.flush();
+            recorder.finished(bytes);
+            return new SyncResult(inserted, updated, deletes.size(), unchanged, writer.results());
+        }
+    }
+
+    /**
+     * Read primary key columns.
+     *
+     * @return lower case column names in key order.
+     */
+    static List<String> primaryKeys(Connection connection, String schemaName, String tableName) throws SQLException {
+        SortedMap<Short, String> keys = new TreeMap<>();
+        try (ResultSet rs = connection.getMetaData().getPrimaryKeys(null, schemaName, tableName)) {
+            while (rs.next()) {
+                keys.put(rs.getShort("KEY_SEQ"), rs.getString("COLUMN_NAME").toLowerCase());
+            }
+        }
+        return new ArrayList<>(keys.values());
+    }
+
+    private List<String> sourceKey(Pending pending) throws IOException {
+        List<String> key = new ArrayList<>(this.keys.size());
+        for (int i = 0; i < this.keys.size(); i++) {
+            int index = indexOf(pending.plan.header, this.keys.get(i));
+            if (index < 0) throw new IOException("Primary key column not found: " + this.keys.get(i));
+            key.add(normalize(pending.values[index], this.keyColumns.get(i).dataType));
+        }
+        return key;
+    }
+
+    private String selectSql(List<String> columns) {
+        StringJoiner select = new StringJoiner(", ");
+        for (String column : columns) {
+            select.add(this.binder.columnNameWrapper(this.columns.get(column).columnName));
+        }
+        return String.format("SELECT %s FROM %s", select, this.tableDef.tableName);
+    }
+
+    private String whereKeys() {
+        StringJoiner where = new StringJoiner(" AND ");
+        for (ColumnDefinition key : this.keyColumns) {
+            where.add(this.binder.columnNameWrapper(key.columnName) + " = ?");
+        }
+        return where.toString();
+    }
+
+    private InsertPlan deletePlan() throws IOException {
+        List<String> names = new ArrayList<>();
+        for (ColumnDefinition key : this.keyColumns) {
+            names.add(key.columnName);
+        }
+        InsertPlan plan = InsertPlan.compile(this.tableDef, this.binder, new RowHeader(names));
+        return plan.withSql(String.format("DELETE FROM %s WHERE %s", this.tableDef.tableName, this.whereKeys()));
+    }
+
+    private UpdatePlan updatePlan(InsertPlan insert) throws IOException {
+        UpdatePlan update = this.updatePlans.get(insert);
+        if (update == null) {
+            // SET columns, then key columns.
+            List<String> names = new ArrayList<>();
+            List<Integer> order = new ArrayList<>();
+            for (int i = 0; i < insert.header.size(); i++) {
+                if (!this.keys.contains(insert.header.name(i).toLowerCase())) {
+                    names.add(insert.header.name(i));
+                    order.add(i);
+                }
+            }
+            StringJoiner set = new StringJoiner(", ");
+            for (int i = 0; i < names.size(); i++) {
+                set.add(insert.columnNames.get(order.get(i)) + " = ?");
+            }
+            for (int i = 0; i < this.keys.size(); i++) {
+                names.add(this.keyColumns.get(i).columnName);
+                order.add(indexOf(insert.header, this.keys.get(i)));
+            }
+
+            InsertPlan plan = InsertPlan.compile(this.tableDef, this.binder, new RowHeader(names));
+            String sql = String.format("UPDATE %s SET %s WHERE %s", this.tableDef.tableName, set, this.whereKeys());
+            update = new UpdatePlan(plan.withSql(sql), order);
+            this.updatePlans.put(insert, update);
+        }
+        return update;
+    }
+
+    /**
+     * @return index of column that has same name ignoring case, or -1.
+     */
+    private static int indexOf(RowHeader header, String lowerName) {
+        for (int i = 0; i < header.size(); i++) {
+            if (header.name(i).toLowerCase().equals(lowerName)) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Normalize value for comparison between converted value and JDBC value.
+     *
+     * @param value    converted value or JDBC value.
+     * @param dataType column JDBC type.
+     * @return comparable string, or null.
+     */
+    static String normalize(Object value, int dataType) {
+        if (value == null) return null;
+
+        if (value instanceof LocalDateTime) value = Timestamp.valueOf((LocalDateTime) value);
+        else if (value instanceof LocalDate) value = java.sql.Date.valueOf((LocalDate) value);
+        else if (value instanceof LocalTime) value = Time.valueOf((LocalTime) value);
+
+        if (value instanceof Timestamp) {
+            Timestamp ts = (Timestamp) value;
+            return ts.getTime() + ":" + ts.getNanos() % 1_000_000;
+        } else if (value instanceof java.util.Date) {
+            return ((java.util.Date) value).getTime() + ":0";
+        } else if (value instanceof Number) {
+            try {
+                return new BigDecimal(value.toString()).stripTrailingZeros().toPlainString();
+            } catch (NumberFormatException e) {
+                return value.toString();
+            }
+        } else if (value instanceof byte[]) {
+            return Hex.encodeHexString((byte[]) value);
+        } else if (value instanceof Object[]) {
+            return Arrays.deepToString((Object[]) value);
+        } else if (value instanceof String && (dataType == Types.CHAR || dataType == Types.NCHAR)) {
+            // ignore padding.
+            String str = (String) value;
+            int end = str.length();
+            while (end > 0 && str.charAt(end - 1) == ' ') end--;
+            return str.substring(0, end);
+        }
+        return value.toString();
+    }
+
+    /**
+     * 64 bit FNV-1a hash of normalized value.
+     */
+    private static long hash(long hash, String value) {
+        if (value == null) {
+            return (hash ^ 0xff) * FNV_PRIME;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+        }
+        // separator.
+        return (hash ^ 0xfe) * FNV_PRIME;
+    }
+
+    /**
+     * Converted source row.
+     */
+    private static final class Pending {
+        private final InsertPlan plan;
+        private final Object[] values;
+        private final long hash;
+        private boolean exists;
+        private boolean changed;
+
+        private Pending(InsertPlan plan, Object[] values) {
+            this.plan = plan;
+            this.values = values;
+            long hash = FNV_OFFSET;
+            for (int i = 0; i < values.length; i++) {
+                hash = hash(hash, normalize(values[i], plan.slots[i].column.dataType));
+            }
+            this.hash = hash;
+        }
+    }
+
+    /**
+     * UPDATE plan and position of its parameters in insert values.
+     */
+    private static final class UpdatePlan {
+        private final InsertPlan plan;
+        private final int[] order;
+
+        private UpdatePlan(InsertPlan plan, List<Integer> order) {
+            this.plan = plan;
+            this.order = order.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        private Object[] reorder(Object[] values) {
+            Object[] reordered = new Object[this.order.length];
+            for (int i = 0; i < this.order.length; i++) {
+                reordered[i] = values[this.order[i]];
+            }
+            return reordered;
+        }
+    }
+}
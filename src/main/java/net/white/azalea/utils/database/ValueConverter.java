@@ -0,0 +1,21 @@
+package net.white.azalea.utils.database;
+
+import java.io.IOException;
+
+/**
+ * Column value converter that specialized for one column.
+ *
+ * @author S.Yoshii
+ */
+@FunctionalInterface
+public interface ValueConverter {
+
+    /**
+     * convert source value.
+     *
+     * @param value From src.
+     * @return converted value.
+     * @throws IOException parse or read error.
+     */
+    Object convert(String value) throws IOException;
+}
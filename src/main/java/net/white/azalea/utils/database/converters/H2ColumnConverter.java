@@ -1,25 +1,46 @@
 package net.white.azalea.utils.database.converters;
 
 import net.white.azalea.utils.database.ColumnConverter;
+import net.white.azalea.utils.database.ValueConverter;
+import net.white.azalea.utils.database.schema.ColumnDefinition;
 import org.apache.commons.codec.DecoderException;
 import org.apache.commons.codec.binary.Hex;
 
 import java.io.IOException;
 import java.math.BigDecimal;
-import java.text.DateFormat;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.Date;
 import java.util.TimeZone;
 
 import static java.sql.Types.*;
 
 /**
  * H2Database column converter.
+ *
+ * This class is thread safe.
  */
 public class H2ColumnConverter implements ColumnConverter {
-    private final DateFormat dateFormatter;
-    private final DateFormat timeFormatter;
-    private final DateFormat datetimeFormatter;
+    private final TemporalParser dateFormatter;
+    private final TemporalParser timeFormatter;
+    private final TemporalParser datetimeFormatter;
+
+    /**
+     * Zone of datetime values.
+     */
+    private final ZoneId timeZone;
+
+    /**
+     * Zone of date and time values.
+     */
+    private final ZoneId defaultZone;
+
+    /**
+     * Return java.time values instead of java.util.Date.
+     */
+    private final boolean javaTime;
 
     public H2ColumnConverter() {
         this(
@@ -36,10 +57,35 @@ public class H2ColumnConverter implements ColumnConverter {
             final String dateFormatter,
             final String timeFormatter
     ) {
-        this.datetimeFormatter = new SimpleDateFormat(datetimeFormatter);
-        this.dateFormatter = new SimpleDateFormat(dateFormatter);
-        this.timeFormatter = new SimpleDateFormat(timeFormatter);
-        this.datetimeFormatter.setTimeZone(timeZone);
+        this(timeZone, datetimeFormatter, dateFormatter, timeFormatter, false);
+    }
+
+    /**
+     * Create converter.
+     *
+     * If {@code javaTime} is true, TIME, DATE and TIMESTAMP columns are converted to
+     * LocalTime, LocalDate and LocalDateTime (of JVM default zone) for JDBC 4.2 drivers.
+     * Otherwise they are converted to java.util.Date.
+     *
+     * @param timeZone          zone of datetime values.
+     * @param datetimeFormatter datetime pattern.
+     * @param dateFormatter     date pattern.
+     * @param timeFormatter     time pattern.
+     * @param javaTime          return java.time values.
+     */
+    public H2ColumnConverter(
+            final TimeZone timeZone,
+            final String datetimeFormatter,
+            final String dateFormatter,
+            final String timeFormatter,
+            final boolean javaTime
+    ) {
+        this.datetimeFormatter = new TemporalParser(datetimeFormatter);
+        this.dateFormatter = new TemporalParser(dateFormatter);
+        this.timeFormatter = new TemporalParser(timeFormatter);
+        this.timeZone = timeZone.toZoneId();
+        this.defaultZone = ZoneId.systemDefault();
+        this.javaTime = javaTime;
     }
 
     @Override
@@ -66,11 +112,11 @@ public class H2ColumnConverter implements ColumnConverter {
                 case REAL:
                     return Float.parseFloat(value);
                 case TIME:
-                    return this.timeFormatter.parse(value);
+                    return this.toTime(value);
                 case DATE:
-                    return this.dateFormatter.parse(value);
+                    return this.toDate(value);
                 case TIMESTAMP:
-                    return this.datetimeFormatter.parse(value);
+                    return this.toDatetime(value);
                 case BINARY:
                 case VARBINARY:
                 case LONGVARBINARY:
@@ -91,14 +137,108 @@ public class H2ColumnConverter implements ColumnConverter {
                 default:
                     throw new IOException("Not support!");
             }
-        } catch (ParseException | DecoderException e) {
+        } catch (DecoderException e) {
             throw new IOException(e);
         }
     }
 
+    @Override
+    public ValueConverter converterFor(ColumnDefinition column) {
+        switch (column.dataType) {
+            case INTEGER:
+                return Integer::parseInt;
+            case BOOLEAN:
+            case BIT:
+                return Boolean::parseBoolean;
+            case TINYINT:
+                return Byte::parseByte;
+            case SMALLINT:
+                return Short::parseShort;
+            case BIGINT:
+                return Long::parseLong;
+            case NUMERIC:
+            case DECIMAL:
+                return BigDecimal::new;
+            case FLOAT:
+            case DOUBLE:
+                return Double::parseDouble;
+            case REAL:
+                return Float::parseFloat;
+            case TIME:
+                return this::toTime;
+            case DATE:
+                return this::toDate;
+            case TIMESTAMP:
+                return this::toDatetime;
+            case CHAR:
+            case VARCHAR:
+            case LONGVARCHAR:
+            case NCHAR:
+            case NVARCHAR:
+            case LONGNVARCHAR:
+                return value -> value;
+            default:
+                // decoder that throws checked exception.
+                final int dataType = column.dataType;
+                final String columnType = column.columnType;
+                return value -> this.conversion(dataType, columnType, value);
+        }
+    }
+
+    /**
+     * Non text columns are cached. text columns are not, because conversion returns source value.
+     */
+    @Override
+    public boolean cacheable(ColumnDefinition column) {
+        switch (column.dataType) {
+            case CHAR:
+            case VARCHAR:
+            case LONGVARCHAR:
+            case NCHAR:
+            case NVARCHAR:
+            case LONGNVARCHAR:
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    private Object toTime(String value) throws IOException {
+        LocalTime time = this.timeFormatter.parseTime(value);
+        if (this.javaTime) return time;
+        return Date.from(time.atDate(LocalDate.of(1970, 1, 1)).atZone(this.defaultZone).toInstant());
+    }
+
+    private Object toDate(String value) throws IOException {
+        LocalDate date = this.dateFormatter.parseDate(value);
+        if (this.javaTime) return date;
+        return Date.from(date.atStartOfDay(this.defaultZone).toInstant());
+    }
+
+    private Object toDatetime(String value) throws IOException {
+        LocalDateTime datetime = this.datetimeFormatter.parseDateTime(value);
+        if (this.javaTime) {
+            return this.timeZone.equals(this.defaultZone)
+                    ? datetime
+                    : datetime.atZone(this.timeZone).withZoneSameInstant(this.defaultZone).toLocalDateTime();
+        }
+        return Date.from(datetime.atZone(this.timeZone).toInstant());
+    }
+
     @Override
     public String columnNameWrapper(String columnName) {
         // NOOP.
         return columnName;
     }
+
+    @Override
+    public String configuration() {
+        return this.getClass().getName()
+                + "{timeZone=" + this.timeZone
+                + ", defaultZone=" + this.defaultZone
+                + ", datetime=" + this.datetimeFormatter.getPattern()
+                + ", date=" + this.dateFormatter.getPattern()
+                + ", time=" + this.timeFormatter.getPattern()
+                + ", javaTime=" + this.javaTime + "}";
+    }
 }
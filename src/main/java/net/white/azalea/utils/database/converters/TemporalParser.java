@@ -0,0 +1,201 @@
+package net.white.azalea.utils.database.converters;
+
+import java.io.IOException;
+import java.text.ParsePosition;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.ResolverStyle;
+import java.time.temporal.TemporalAccessor;
+import java.time.temporal.TemporalQuery;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Thread safe date and time parser.
+ *
+ * Fixed width numeric patterns like {@code yyyy/MM/dd HH:mm:ss} are parsed by hand,
+ * other patterns and values (eg. {@code 2019/2/1}) are parsed by lenient {@link DateTimeFormatter}
+ * like {@link java.text.SimpleDateFormat}.
+ *
+ * @author S.Yoshii
+ */
+public final class TemporalParser {
+
+    private static final int YEAR = 0;
+    private static final int MONTH = 1;
+    private static final int DAY = 2;
+    private static final int HOUR = 3;
+    private static final int MINUTE = 4;
+    private static final int SECOND = 5;
+    private static final int MILLIS = 6;
+
+    /**
+     * Source pattern.
+     */
+    private final String pattern;
+
+    /**
+     * Fallback formatter.
+     */
+    private final DateTimeFormatter formatter;
+
+    /**
+     * Fixed width fields, or null if pattern is not fixed width.
+     * Each field is {type, offset, width}.
+     */
+    private final int[][] fields;
+
+    public TemporalParser(final String pattern) {
+        this.pattern = pattern;
+        this.formatter = new DateTimeFormatterBuilder()
+                .parseLenient()
+                .appendPattern(pattern)
+                .toFormatter()
+                .withResolverStyle(ResolverStyle.LENIENT);
+        this.fields = compileFixedWidth(pattern);
+    }
+
+    /**
+     * @return source pattern.
+     */
+    public String getPattern() {
+        return this.pattern;
+    }
+
+    /**
+     * Parse as date and time.
+     *
+     * @param value source value.
+     * @return parsed value.
+     * @throws IOException parse error.
+     */
+    public LocalDateTime parseDateTime(String value) throws IOException {
+        int[] v = this.parseFixed(value);
+        if (v != null) {
+            try {
+                return LocalDateTime.of(v[YEAR], v[MONTH], v[DAY], v[HOUR], v[MINUTE], v[SECOND], v[MILLIS] * 1_000_000);
+            } catch (DateTimeException e) {
+                // out of range, resolve leniently.
+            }
+        }
+        return this.parseByFormatter(value, LocalDateTime::from);
+    }
+
+    /**
+     * Parse as date.
+     *
+     * @param value source value.
+     * @return parsed value.
+     * @throws IOException parse error.
+     */
+    public LocalDate parseDate(String value) throws IOException {
+        int[] v = this.parseFixed(value);
+        if (v != null) {
+            try {
+                return LocalDate.of(v[YEAR], v[MONTH], v[DAY]);
+            } catch (DateTimeException e) {
+                // out of range, resolve leniently.
+            }
+        }
+        return this.parseByFormatter(value, LocalDate::from);
+    }
+
+    /**
+     * Parse as time.
+     *
+     * @param value source value.
+     * @return parsed value.
+     * @throws IOException parse error.
+     */
+    public LocalTime parseTime(String value) throws IOException {
+        int[] v = this.parseFixed(value);
+        if (v != null) {
+            try {
+                return LocalTime.of(v[HOUR], v[MINUTE], v[SECOND], v[MILLIS] * 1_000_000);
+            } catch (DateTimeException e) {
+                // out of range, resolve leniently.
+            }
+        }
+        return this.parseByFormatter(value, LocalTime::from);
+    }
+
+    private <T> T parseByFormatter(String value, TemporalQuery<T> query) throws IOException {
+        if (value == null) throw new IOException("Unparseable date: null");
+        try {
+            ParsePosition position = new ParsePosition(0);
+            TemporalAccessor parsed = this.formatter.parse(value, position);
+            return query.queryFrom(parsed);
+        } catch (DateTimeException e) {
+            throw new IOException("Unparseable date: \"" + value + "\"", e);
+        }
+    }
+
+    /**
+     * Parse fixed width value.
+     *
+     * @param value source value.
+     * @return field values, or null if value does not match to fixed width pattern.
+     */
+    private int[] parseFixed(String value) {
+        if (this.fields == null || value == null || value.length() != this.pattern.length()) {
+            return null;
+        }
+
+        // literals.
+        for (int i = 0; i < value.length(); i++) {
+            char p = this.pattern.charAt(i);
+            if (!isPatternLetter(p) && p != value.charAt(i)) return null;
+        }
+
+        // numbers.
+        int[] result = {1970, 1, 1, 0, 0, 0, 0};
+        for (int[] field : this.fields) {
+            int n = 0;
+            for (int i = field[1]; i < field[1] + field[2]; i++) {
+                int digit = value.charAt(i) - '0';
+                if (digit < 0 || digit > 9) return null;
+                n = n * 10 + digit;
+            }
+            result[field[0]] = n;
+        }
+        return result;
+    }
+
+    private static int[][] compileFixedWidth(String pattern) {
+        List<int[]> fields = new ArrayList<>();
+        int i = 0;
+        while (i < pattern.length()) {
+            char c = pattern.charAt(i);
+            if (c == '\'') return null; // quoted literal.
+            if (!isPatternLetter(c)) {
+                i++;
+                continue;
+            }
+
+            int start = i;
+            while (i < pattern.length() && pattern.charAt(i) == c) i++;
+            int width = i - start;
+
+            int type;
+            if (c == 'y' && width == 4) type = YEAR;
+            else if (c == 'M' && width == 2) type = MONTH;
+            else if (c == 'd' && width == 2) type = DAY;
+            else if (c == 'H' && width == 2) type = HOUR;
+            else if (c == 'm' && width == 2) type = MINUTE;
+            else if (c == 's' && width == 2) type = SECOND;
+            else if (c == 'S' && width == 3) type = MILLIS;
+            else return null;
+
+            fields.add(new int[]{type, start, width});
+        }
+        return fields.toArray(new int[0][]);
+    }
+
+    private static boolean isPatternLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+}
@@ -0,0 +1,149 @@
+package net.white.azalea.utils.database.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Read source stream on other thread.
+ *
+ * Used to inflate compressed file while parsing.
+ * Chunks in flight are at most {@link #CAPACITY}.
+ *
+ * @author S.Yoshii
+ */
+final class AsyncInputStream extends InputStream {
+
+    /**
+     * Bytes of one chunk.
+     */
+    static final int CHUNK_SIZE = 64 * 1024;
+
+    /**
+     * Max chunks in queue.
+     */
+    static final int CAPACITY = 16;
+
+    private static final byte[] END = new byte[0];
+    private static final AtomicInteger COUNT = new AtomicInteger();
+
+    private final InputStream source;
+    private final BlockingQueue<byte[]> queue = new ArrayBlockingQueue<>(CAPACITY);
+    private final Thread thread;
+
+    private volatile boolean stopped;
+    private volatile IOException error;
+
+    private byte[] current = new byte[0];
+    private int index;
+    private boolean ended;
+
+    /**
+     * Start reading.
+     *
+     * @param source source stream. closed by this stream.
+     */
+    AsyncInputStream(InputStream source) {
+        this.source = source;
+        this.thread = new Thread(this::pump, "tsv-inserter-inflate-" + COUNT.incrementAndGet());
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!this.fill()) return -1;
+        return this.current[this.index++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) return 0;
+        if (!this.fill()) return -1;
+
+        int n = Math.min(len, this.current.length - this.index);
+        System.arraycopy(this.current, this.index, b, off, n);
+        this.index += n;
+        return n;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.stopped = true;
+        this.thread.interrupt();
+        try {
+            this.thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        this.source.close();
+    }
+
+    /**
+     * Take next chunk if current chunk is consumed.
+     *
+     * @return false if reached to end.
+     */
+    private boolean fill() throws IOException {
+        while (this.index >= this.current.length) {
+            if (this.ended) return false;
+            try {
+                byte[] next = this.queue.poll(100, TimeUnit.MILLISECONDS);
+                if (next == null) continue;
+                if (next == END) {
+                    this.ended = true;
+                    if (this.error != null) throw this.error;
+                    return false;
+                }
+                this.current = next;
+                this.index = 0;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while reading.");
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Read source into queue until end or stopped.
+     */
+    private void pump() {
+        try {
+            while (!this.stopped) {
+                byte[] chunk = new byte[CHUNK_SIZE];
+                int length = 0;
+                int read;
+                while (length < CHUNK_SIZE && (read = this.source.read(chunk, length, CHUNK_SIZE - length)) >= 0) {
+                    length += read;
+                }
+                if (length > 0) {
+                    this.put(length == CHUNK_SIZE ? chunk : Arrays.copyOf(chunk, length));
+                }
+                if (length < CHUNK_SIZE) break;
+            }
+        } catch (IOException e) {
+            this.error = e;
+        } catch (InterruptedException e) {
+            return;
+        }
+
+        try {
+            this.put(END);
+        } catch (InterruptedException e) {
+            // closed.
+        }
+    }
+
+    private void put(byte[] chunk) throws InterruptedException {
+        while (!this.stopped) {
+            if (this.queue.offer(chunk, 100, TimeUnit.MILLISECONDS)) return;
+        }
+        throw new InterruptedException();
+    }
+}
@@ -0,0 +1,126 @@
+package net.white.azalea.utils.database.impl;
+
+/**
+ * Dictionary of cell bytes of one column.
+ *
+ * Repeated cell values are looked up by raw bytes and share one String,
+ * so they are decoded once per reader.
+ * Disabled when distinct values exceed {@link #MAX_ENTRIES}, to not slow down unique columns.
+ * Not thread safe.
+ *
+ * @author S.Yoshii
+ */
+final class CellDictionary {
+
+    /**
+     * Max distinct values of one column.
+     */
+    static final int MAX_ENTRIES = 1024;
+
+    /**
+     * Max cell bytes to register.
+     */
+    static final int MAX_CELL_BYTES = 64;
+
+    private Entry[] table = new Entry[64];
+    private int size;
+
+    /**
+     * Hash of last looked up cell.
+     */
+    private int lastHash;
+
+    /**
+     * @return false if column has too many distinct values.
+     */
+    boolean isEnabled() {
+        return this.table != null;
+    }
+
+    /**
+     * Find decoded value of cell.
+     *
+     * @param bytes line buffer.
+     * @param start first byte of cell.
+     * @param end   end of cell (exclusive).
+     * @return decoded value, or null if not registered.
+     */
+    String get(byte[] bytes, int start, int end) {
+        if (end - start > MAX_CELL_BYTES) return null;
+
+        int hash = 1;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + bytes[i];
+        }
+        hash ^= hash >>> 16;
+        this.lastHash = hash;
+
+        Entry[] t = this.table;
+        int mask = t.length - 1;
+        for (int i = hash & mask; t[i] != null; i = (i + 1) & mask) {
+            Entry e = t[i];
+            if (e.hash == hash && e.matches(bytes, start, end)) return e.value;
+        }
+        return null;
+    }
+
+    /**
+     * Register decoded value of cell that just looked up by {@link #get(byte[], int, int)}.
+     *
+     * @param bytes line buffer.
+     * @param start first byte of cell.
+     * @param end   end of cell (exclusive).
+     * @param value decoded value.
+     */
+    void put(byte[] bytes, int start, int end, String value) {
+        if (end - start > MAX_CELL_BYTES) return;
+        if (this.size >= MAX_ENTRIES) {
+            // high cardinality column.
+            this.table = null;
+            return;
+        }
+
+        if ((this.size + 1) * 2 > this.table.length) this.resize();
+        byte[] key = new byte[end - start];
+        System.arraycopy(bytes, start, key, 0, key.length);
+        insert(this.table, new Entry(this.lastHash, key, value));
+        this.size++;
+    }
+
+    private void resize() {
+        Entry[] resized = new Entry[this.table.length * 2];
+        for (Entry e : this.table) {
+            if (e != null) insert(resized, e);
+        }
+        this.table = resized;
+    }
+
+    private static void insert(Entry[] t, Entry entry) {
+        int mask = t.length - 1;
+        int i = entry.hash & mask;
+        while (t[i] != null) {
+            i = (i + 1) & mask;
+        }
+        t[i] = entry;
+    }
+
+    private static final class Entry {
+        private final int hash;
+        private final byte[] bytes;
+        private final String value;
+
+        private Entry(int hash, byte[] bytes, String value) {
+            this.hash = hash;
+            this.bytes = bytes;
+            this.value = value;
+        }
+
+        private boolean matches(byte[] line, int start, int end) {
+            if (this.bytes.length != end - start) return false;
+            for (int i = 0; i < this.bytes.length; i++) {
+                if (this.bytes[i] != line[start + i]) return false;
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package net.white.azalea.utils.database.impl;
+
+import net.white.azalea.utils.database.*;
+import net.white.azalea.utils.database.schema.TableDefinition;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * TSV data source that has compiled binary file.
+ *
+ * {@link TableInserter} reads converted values from memory mapped compiled file.
+ * If TSV file, table definition or converter configuration is changed, file is compiled again.
+ * Converters that configuration is unknown cannot use compiled file, and TSV file is converted.
+ * Other methods read TSV file.
+ *
+ * @author S.Yoshii
+ * @see TsvCompiler
+ */
+public class CompiledTsvDataSource implements ConvertedDataSource {
+
+    /**
+     * Source TSV.
+     */
+    private final TsvDataSource source;
+
+    /**
+     * Path of compiled file.
+     */
+    private final Path compiled;
+
+    /**
+     * @param path     TSV file path.
+     * @param encoding TSV file encoding.
+     * @param compiled compiled file path. created if not exists.
+     */
+    public CompiledTsvDataSource(Path path, String encoding, Path compiled) {
+        this(new TsvDataSource(path, encoding), compiled);
+    }
+
+    /**
+     * @param source   TSV data source.
+     * @param compiled compiled file path. created if not exists.
+     */
+    public CompiledTsvDataSource(TsvDataSource source, Path compiled) {
+        this.source = source;
+        this.compiled = compiled;
+    }
+
+    @Override
+    public List<Map<String, String>> loadDataSource() throws IOException {
+        return this.source.loadDataSource();
+    }
+
+    @Override
+    public DataCursor<Map<String, String>> openCursor() throws IOException {
+        return this.source.openCursor();
+    }
+
+    @Override
+    public DataCursor<Row> openRowCursor() throws IOException {
+        return this.source.openRowCursor();
+    }
+
+    @Override
+    public void digest(MessageDigest digest) throws IOException {
+        this.source.digest(digest);
+    }
+
+    /**
+     * Open cursor of compiled file. compile TSV if file is missing or stale.
+     *
+     * @param tableDef target table definition.
+     * @param binder   data conversion adapter.
+     * @return value cursor. caller must close it.
+     * @throws IOException if cannot compile or read file.
+     */
+    @Override
+    public Cursor openValueCursor(TableDefinition tableDef, ColumnConverter binder) throws IOException {
+        String key = FixtureCache.key(tableDef, this.source, binder);
+        if (!key.equals(readKey(this.compiled))) {
+            TsvCompiler.compile(this.source, tableDef, binder, this.compiled, key);
+        }
+        return new MappedCursor(FileChannel.open(this.compiled, StandardOpenOption.READ));
+    }
+
+    /**
+     * Read key of compiled file.
+     *
+     * @param compiled compiled file path.
+     * @return key, or null if file not exists or other format version.
+     * @throws IOException if cannot read file.
+     */
+    public static String readKey(Path compiled) throws IOException {
+        if (!Files.exists(compiled)) return null;
+
+        try (FileChannel channel = FileChannel.open(compiled, StandardOpenOption.READ)) {
+            ByteBuffer head = read(channel, 0, 12);
+            if (head == null
+                    || head.getInt() != CompiledTsvFormat.MAGIC
+                    || head.getInt() != CompiledTsvFormat.VERSION) {
+                return null;
+            }
+            ByteBuffer key = read(channel, 12, head.getInt());
+            return key == null ? null : StandardCharsets.UTF_8.decode(key).toString();
+        }
+    }
+
+    /**
+     * Read bytes at position.
+     *
+     * @return flipped buffer, or null if file is shorter.
+     */
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        if (length < 0) return null;
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) return null;
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Cursor that maps one block at a time.
+     */
+    private static final class MappedCursor implements Cursor {
+        private final FileChannel channel;
+        private final long size;
+
+        /**
+         * Start of next block.
+         */
+        private long position;
+
+        private RowHeader blockHeader;
+        private Object[][] rows = new Object[0][];
+        private int index;
+        private RowHeader header;
+
+        private MappedCursor(FileChannel channel) throws IOException {
+            this.channel = channel;
+            try {
+                this.size = channel.size();
+                ByteBuffer head = read(channel, 8, 4);
+                if (head == null) throw new IOException("Broken compiled file.");
+                this.position = 12 + head.getInt();
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        @Override
+        public boolean hasNext() throws IOException {
+            while (this.index >= this.rows.length) {
+                if (this.position >= this.size) return false;
+                this.readBlock();
+            }
+            return true;
+        }
+
+        @Override
+        public Object[] next() throws IOException {
+            if (!this.hasNext()) throw new NoSuchElementException();
+            this.header = this.blockHeader;
+            return this.rows[this.index++];
+        }
+
+        @Override
+        public RowHeader header() {
+            return this.header;
+        }
+
+        @Override
+        public long bytesRead() {
+            return this.position;
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.channel.close();
+        }
+
+        private void readBlock() throws IOException {
+            ByteBuffer head = read(this.channel, this.position, 12);
+            if (head == null) throw new IOException("Broken compiled file at " + this.position);
+            int count = head.getInt();
+            int columns = head.getInt();
+            int length = head.getInt();
+
+            ByteBuffer payload = this.channel.map(FileChannel.MapMode.READ_ONLY, this.position + 12, length);
+            String[] names = new String[columns];
+            for (int i = 0; i < columns; i++) {
+                byte[] name = new byte[payload.getInt()];
+                payload.get(name);
+                names[i] = new String(name, StandardCharsets.UTF_8);
+            }
+
+            // columnar values to rows.
+            Object[][] block = new Object[count][columns];
+            for (int column = 0; column < columns; column++) {
+                for (int row = 0; row < count; row++) {
+                    block[row][column] = CompiledTsvFormat.read(payload);
+                }
+            }
+
+            this.blockHeader = new RowHeader(names);
+            this.rows = block;
+            this.index = 0;
+            this.position += 12 + length;
+        }
+    }
+}
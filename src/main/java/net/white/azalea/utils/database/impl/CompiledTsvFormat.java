@@ -0,0 +1,223 @@
+package net.white.azalea.utils.database.impl;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.Date;
+
+/**
+ * Layout of compiled TSV file.
+ *
+ * <pre>
+ * header:  magic, version, key byte length, key (UTF-8)
+ * block:   row count, column count, payload byte length, payload
+ * payload: column names (byte length, UTF-8 each),
+ *          then values of first column in all rows, then second column, ...
+ * value:   type tag, then fixed or length prefixed bytes
+ * </pre>
+ *
+ * @author S.Yoshii
+ */
+final class CompiledTsvFormat {
+
+    static final int MAGIC = 0x54535643;
+    static final int VERSION = 1;
+
+    /**
+     * Max rows in one block.
+     */
+    static final int BLOCK_ROWS = 4096;
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte INTEGER = 2;
+    private static final byte LONG = 3;
+    private static final byte SHORT = 4;
+    private static final byte BYTE = 5;
+    private static final byte BOOLEAN = 6;
+    private static final byte FLOAT = 7;
+    private static final byte DOUBLE = 8;
+    private static final byte DECIMAL = 9;
+    private static final byte DATE = 10;
+    private static final byte LOCAL_DATE = 11;
+    private static final byte LOCAL_TIME = 12;
+    private static final byte LOCAL_DATE_TIME = 13;
+    private static final byte BYTES = 14;
+    private static final byte STRINGS = 15;
+    private static final byte SERIALIZED = 16;
+
+    private CompiledTsvFormat() {
+    }
+
+    /**
+     * Write one value.
+     *
+     * @param out   payload stream.
+     * @param value converted value.
+     * @throws IOException if value is not serializable.
+     */
+    static void write(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof String) {
+            out.writeByte(STRING);
+            writeString(out, (String) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(INTEGER);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Short) {
+            out.writeByte(SHORT);
+            out.writeShort((Short) value);
+        } else if (value instanceof Byte) {
+            out.writeByte(BYTE);
+            out.writeByte((Byte) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Float) {
+            out.writeByte(FLOAT);
+            out.writeFloat((Float) value);
+        } else if (value instanceof Double) {
+            out.writeByte(DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof BigDecimal) {
+            BigDecimal decimal = (BigDecimal) value;
+            out.writeByte(DECIMAL);
+            out.writeInt(decimal.scale());
+            writeBytes(out, decimal.unscaledValue().toByteArray());
+        } else if (value.getClass() == Date.class) {
+            out.writeByte(DATE);
+            out.writeLong(((Date) value).getTime());
+        } else if (value instanceof LocalDate) {
+            out.writeByte(LOCAL_DATE);
+            out.writeLong(((LocalDate) value).toEpochDay());
+        } else if (value instanceof LocalTime) {
+            out.writeByte(LOCAL_TIME);
+            out.writeLong(((LocalTime) value).toNanoOfDay());
+        } else if (value instanceof LocalDateTime) {
+            LocalDateTime datetime = (LocalDateTime) value;
+            out.writeByte(LOCAL_DATE_TIME);
+            out.writeLong(datetime.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(datetime.getNano());
+        } else if (value instanceof byte[]) {
+            out.writeByte(BYTES);
+            writeBytes(out, (byte[]) value);
+        } else if (value instanceof String[]) {
+            String[] strings = (String[]) value;
+            out.writeByte(STRINGS);
+            out.writeInt(strings.length);
+            for (String str : strings) {
+                if (str == null) {
+                    out.writeInt(-1);
+                } else {
+                    writeString(out, str);
+                }
+            }
+        } else {
+            // other types of custom converters.
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream objects = new ObjectOutputStream(bytes)) {
+                objects.writeObject(value);
+            }
+            out.writeByte(SERIALIZED);
+            writeBytes(out, bytes.toByteArray());
+        }
+    }
+
+    /**
+     * Read one value.
+     *
+     * @param buffer payload buffer.
+     * @return converted value.
+     * @throws IOException if file is broken.
+     */
+    static Object read(ByteBuffer buffer) throws IOException {
+        byte tag = buffer.get();
+        switch (tag) {
+            case NULL:
+                return null;
+            case STRING:
+                return readString(buffer, buffer.getInt());
+            case INTEGER:
+                return buffer.getInt();
+            case LONG:
+                return buffer.getLong();
+            case SHORT:
+                return buffer.getShort();
+            case BYTE:
+                return buffer.get();
+            case BOOLEAN:
+                return buffer.get() != 0;
+            case FLOAT:
+                return buffer.getFloat();
+            case DOUBLE:
+                return buffer.getDouble();
+            case DECIMAL:
+                int scale = buffer.getInt();
+                return new BigDecimal(new BigInteger(readBytes(buffer)), scale);
+            case DATE:
+                return new Date(buffer.getLong());
+            case LOCAL_DATE:
+                return LocalDate.ofEpochDay(buffer.getLong());
+            case LOCAL_TIME:
+                return LocalTime.ofNanoOfDay(buffer.getLong());
+            case LOCAL_DATE_TIME:
+                long seconds = buffer.getLong();
+                return LocalDateTime.ofEpochSecond(seconds, buffer.getInt(), ZoneOffset.UTC);
+            case BYTES:
+                return readBytes(buffer);
+            case STRINGS:
+                String[] strings = new String[buffer.getInt()];
+                for (int i = 0; i < strings.length; i++) {
+                    int length = buffer.getInt();
+                    strings[i] = length < 0 ? null : readString(buffer, length);
+                }
+                return strings;
+            case SERIALIZED:
+                try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(readBytes(buffer)))) {
+                    return in.readObject();
+                } catch (ClassNotFoundException e) {
+                    throw new IOException(e);
+                }
+            default:
+                throw new IOException("Broken compiled value: tag=" + tag);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        writeBytes(out, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] value) throws IOException {
+        out.writeInt(value.length);
+        out.write(value);
+    }
+
+    private static String readString(ByteBuffer buffer, int length) {
+        String value;
+        if (buffer.hasArray()) {
+            value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+        } else {
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return value;
+    }
+
+    private static byte[] readBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
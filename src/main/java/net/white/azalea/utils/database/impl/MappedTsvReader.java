@@ -0,0 +1,345 @@
+package net.white.azalea.utils.database.impl;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Byte level TSV tokenizer on memory mapped file.
+ *
+ * Scans tab and line break bytes in mapped buffer directly,
+ * and decodes cell to String only when {@link #cell(int)} is called.
+ * Row values of repeated cells are shared by column dictionary (see {@link CellDictionary}).
+ * Available only for charsets that never contain tab and line break bytes in multi byte characters.
+ *
+ * @author S.Yoshii
+ */
+class MappedTsvReader implements Closeable {
+
+    /**
+     * Default size of mapped window.
+     */
+    static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+    /**
+     * Charsets that keep ASCII control bytes as is.
+     */
+    private static final Set<String> SUPPORTED_CHARSETS = new HashSet<>(Arrays.asList(
+            "UTF-8", "US-ASCII", "ISO-8859-1", "Shift_JIS", "windows-31j", "EUC-JP"
+    ));
+
+    private final FileChannel channel;
+    private final Charset charset;
+    private final boolean utf8;
+    private final long end;
+    private int windowSize;
+
+    /**
+     * Current mapped window and its file offset.
+     */
+    private MappedByteBuffer window;
+    private long windowStart;
+
+    /**
+     * File offset of next line.
+     */
+    private long position;
+
+    /**
+     * Bytes of current line, and offsets of cells in it.
+     */
+    private byte[] line = new byte[256];
+    private int[] cellStarts = new int[16];
+    private int[] cellEnds = new int[16];
+    private int cellCount;
+    private long lineStart;
+
+    /**
+     * Dictionaries by column index.
+     */
+    private CellDictionary[] dictionaries = new CellDictionary[0];
+
+    /**
+     * Open whole file.
+     *
+     * @param path    TSV file path.
+     * @param charset file encoding.
+     * @throws IOException if cannot open.
+     */
+    MappedTsvReader(Path path, Charset charset) throws IOException {
+        this(FileChannel.open(path, StandardOpenOption.READ), charset, 0, -1, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Open byte range of file.
+     *
+     * @param channel    opened file channel. closed with this reader.
+     * @param charset    file encoding.
+     * @param start      first byte offset. must be start of line.
+     * @param end        end byte offset (exclusive), or -1 for end of file.
+     * @param windowSize size of mapped window.
+     * @throws IOException if cannot read file size.
+     */
+    MappedTsvReader(FileChannel channel, Charset charset, long start, long end, int windowSize) throws IOException {
+        this.channel = channel;
+        this.charset = charset;
+        this.utf8 = StandardCharsets.UTF_8.equals(charset);
+        this.end = end < 0 ? channel.size() : Math.min(end, channel.size());
+        this.windowSize = windowSize;
+        this.position = start;
+    }
+
+    /**
+     * Check for charset support.
+     *
+     * @param charset file encoding.
+     * @return true if this reader can tokenize files of the charset.
+     */
+    static boolean isSupported(Charset charset) {
+        return SUPPORTED_CHARSETS.contains(charset.name());
+    }
+
+    /**
+     * Move to next not empty line.
+     *
+     * Same as {@code String.split("\t")}, trailing empty cells are removed,
+     * and lines that have no cells are skipped.
+     *
+     * @return false if reached to end.
+     * @throws IOException if cannot read file.
+     */
+    boolean nextLine() throws IOException {
+        while (this.position < this.end) {
+            if (this.readLine() && this.cellCount > 0) {
+                return true;
+            }
+        }
+        this.cellCount = 0;
+        return false;
+    }
+
+    /**
+     * @return cell count of current line.
+     */
+    int cellCount() {
+        return this.cellCount;
+    }
+
+    /**
+     * @return file offset of current line.
+     */
+    long lineStart() {
+        return this.lineStart;
+    }
+
+    /**
+     * @return file offset of next line.
+     */
+    long position() {
+        return this.position;
+    }
+
+    /**
+     * Move to line.
+     *
+     * @param position file offset of next line. must be start of line.
+     */
+    void seek(long position) {
+        this.position = position;
+        this.cellCount = 0;
+    }
+
+    /**
+     * Check cell is empty or white spaces only, without decoding.
+     *
+     * Same as {@code String.trim().length() == 0} for ASCII compatible charsets.
+     *
+     * @param index cell index.
+     * @return true if blank.
+     */
+    boolean isBlank(int index) {
+        for (int i = this.cellStarts[index]; i < this.cellEnds[index]; i++) {
+            if ((this.line[i] & 0xFF) > ' ') return false;
+        }
+        return true;
+    }
+
+    /**
+     * Decode cell value.
+     *
+     * @param index cell index.
+     * @return decoded string.
+     */
+    String cell(int index) {
+        int start = this.cellStarts[index];
+        int length = this.cellEnds[index] - start;
+
+        // ASCII only cell is same in all supported charsets.
+        boolean ascii = true;
+        for (int i = start; i < start + length; i++) {
+            if (this.line[i] < 0) {
+                ascii = false;
+                break;
+            }
+        }
+
+        if (ascii) {
+            return new String(this.line, start, length, StandardCharsets.ISO_8859_1);
+        } else if (this.utf8) {
+            return new String(this.line, start, length, StandardCharsets.UTF_8);
+        } else {
+            return new String(this.line, start, length, this.charset);
+        }
+    }
+
+    /**
+     * Decode all cells of current line.
+     *
+     * @return decoded cells.
+     */
+    String[] cells() {
+        String[] cells = new String[this.cellCount];
+        for (int i = 0; i < this.cellCount; i++) {
+            cells[i] = this.cell(i);
+        }
+        return cells;
+    }
+
+    /**
+     * Decode cells of current line as row values.
+     *
+     * Repeated values of a column are same String instance.
+     *
+     * @return decoded cells, blank cells are null.
+     */
+    String[] values() {
+        if (this.dictionaries.length < this.cellCount) {
+            int length = this.dictionaries.length;
+            this.dictionaries = Arrays.copyOf(this.dictionaries, this.cellCount);
+            for (int i = length; i < this.cellCount; i++) {
+                this.dictionaries[i] = new CellDictionary();
+            }
+        }
+
+        String[] values = new String[this.cellCount];
+        for (int i = 0; i < this.cellCount; i++) {
+            values[i] = this.isBlank(i) ? null : this.value(i);
+        }
+        return values;
+    }
+
+    private String value(int index) {
+        CellDictionary dictionary = this.dictionaries[index];
+        if (!dictionary.isEnabled()) return this.cell(index);
+
+        int start = this.cellStarts[index];
+        int end = this.cellEnds[index];
+        String value = dictionary.get(this.line, start, end);
+        if (value == null) {
+            value = this.cell(index);
+            dictionary.put(this.line, start, end, value);
+        }
+        return value;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.window = null;
+        this.channel.close();
+    }
+
+    /**
+     * Copy bytes of next line into line buffer and tokenize it.
+     *
+     * @return false if line is empty.
+     * @throws IOException if cannot read file.
+     */
+    private boolean readLine() throws IOException {
+        this.ensureMapped(this.position);
+        this.lineStart = this.position;
+
+        int offset = (int) (this.position - this.windowStart);
+        int limit = this.window.limit();
+        int lineEnd = this.scanLineEnd(offset, limit);
+
+        // line continues to next window.
+        while (lineEnd == limit && this.windowStart + limit < this.end) {
+            if (offset == 0) {
+                // too long line, expand window.
+                if (this.windowSize == Integer.MAX_VALUE) throw new IOException("Too long line at " + this.lineStart);
+                this.windowSize = (int) Math.min(Integer.MAX_VALUE, this.windowSize * 2L);
+            }
+            this.map(this.lineStart);
+            offset = 0;
+            limit = this.window.limit();
+            lineEnd = this.scanLineEnd(offset, limit);
+        }
+
+        int length = lineEnd - offset;
+        this.position = this.windowStart + lineEnd + (lineEnd < limit ? 1 : 0);
+        if (length == 0) return false;
+
+        if (this.line.length < length) {
+            this.line = new byte[Math.max(length, this.line.length * 2)];
+        }
+        this.window.position(offset);
+        this.window.get(this.line, 0, length);
+
+        this.tokenize(length);
+        return true;
+    }
+
+    private int scanLineEnd(int from, int limit) {
+        MappedByteBuffer buf = this.window;
+        for (int i = from; i < limit; i++) {
+            byte b = buf.get(i);
+            if (b == '\n' || b == '\r') return i;
+        }
+        return limit;
+    }
+
+    private void tokenize(int length) {
+        int count = 0;
+        int start = 0;
+        for (int i = 0; i <= length; i++) {
+            if (i == length || this.line[i] == '\t') {
+                if (count == this.cellStarts.length) {
+                    this.cellStarts = Arrays.copyOf(this.cellStarts, count * 2);
+                    this.cellEnds = Arrays.copyOf(this.cellEnds, count * 2);
+                }
+                this.cellStarts[count] = start;
+                this.cellEnds[count] = i;
+                count++;
+                start = i + 1;
+            }
+        }
+
+        // remove trailing empty cells as String.split.
+        while (count > 0 && this.cellStarts[count - 1] == this.cellEnds[count - 1]) {
+            count--;
+        }
+        this.cellCount = count;
+    }
+
+    private void ensureMapped(long offset) throws IOException {
+        if (this.window == null
+                || offset < this.windowStart
+                || offset >= this.windowStart + this.window.limit()) {
+            this.map(offset);
+        }
+    }
+
+    private void map(long offset) throws IOException {
+        long size = Math.min(this.windowSize, this.end - offset);
+        this.window = this.channel.map(FileChannel.MapMode.READ_ONLY, offset, size);
+        this.windowStart = offset;
+    }
+}
@@ -0,0 +1,414 @@
+package net.white.azalea.utils.database.impl;
+
+import net.white.azalea.utils.database.DataCursor;
+import net.white.azalea.utils.database.DataSource;
+import net.white.azalea.utils.database.Row;
+import net.white.azalea.utils.database.RowHeader;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Row buffer out of java heap.
+ *
+ * Rows are appended to direct buffers in length prefixed encoding:
+ * <pre>
+ * header: tag, column count, column names
+ * row:    tag, value count, values
+ * string: byte length (-1 for null), UTF-8 bytes
+ * </pre>
+ * When buffers exceed memory budget, they are written to temp file and reused,
+ * so the file has older rows and buffers have newer rows.
+ *
+ * Rows can be read many times, eg. to retry a load, and {@link #openRowCursor()} shares one header between rows.
+ * Not thread safe, and rows cannot be added while a cursor is open.
+ *
+ * @author S.Yoshii
+ */
+public final class OffHeapRowStore implements DataSource, Closeable {
+
+    /**
+     * Max bytes of one buffer.
+     */
+    static final int CHUNK_SIZE = 1024 * 1024;
+
+    private static final byte HEADER = 1;
+    private static final byte ROW = 2;
+
+    private final long memoryBudget;
+    private final Path spillDirectory;
+    private final int chunkSize;
+
+    /**
+     * Buffers of newer rows. all but last are full.
+     */
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+
+    /**
+     * Empty buffers for reuse.
+     */
+    private final Deque<ByteBuffer> free = new ArrayDeque<>();
+    private int allocated;
+
+    /**
+     * Temp file of older rows, or null if not spilled.
+     */
+    private FileChannel spill;
+    private long spilledBytes;
+
+    private RowHeader lastHeader;
+    private long rows;
+    private int openCursors;
+    private boolean closed;
+
+    /**
+     * Spill to default temp directory.
+     *
+     * @param memoryBudget max bytes of direct buffers.
+     */
+    public OffHeapRowStore(long memoryBudget) {
+        this(memoryBudget, null);
+    }
+
+    /**
+     * @param memoryBudget   max bytes of direct buffers.
+     * @param spillDirectory directory of temp file, or null for default temp directory.
+     */
+    public OffHeapRowStore(long memoryBudget, Path spillDirectory) {
+        if (memoryBudget < 1) throw new IllegalArgumentException("memoryBudget must be positive: " + memoryBudget);
+        this.memoryBudget = memoryBudget;
+        this.spillDirectory = spillDirectory;
+        this.chunkSize = (int) Math.min(CHUNK_SIZE, memoryBudget);
+    }
+
+    /**
+     * Append rows of data source.
+     *
+     * @param source data source.
+     * @throws IOException if cannot read source or write temp file.
+     */
+    public void addAll(DataSource source) throws IOException {
+        try (DataCursor<Row> cursor = source.openRowCursor()) {
+            while (cursor.hasNext()) {
+                this.add(cursor.next());
+            }
+        }
+    }
+
+    /**
+     * Append row.
+     *
+     * @param row source row.
+     * @throws IOException if cannot write temp file.
+     */
+    public void add(Row row) throws IOException {
+        if (this.closed) throw new IllegalStateException("Store is closed.");
+        if (this.openCursors > 0) throw new IllegalStateException("Store is being read.");
+
+        // header only when column set is changed.
+        if (row.header != this.lastHeader && !row.header.equals(this.lastHeader)) {
+            this.putByte(HEADER);
+            this.putInt(row.header.size());
+            for (int i = 0; i < row.header.size(); i++) {
+                this.putString(row.header.name(i));
+            }
+            this.lastHeader = row.header;
+        }
+
+        this.putByte(ROW);
+        this.putInt(row.values.length);
+        for (String value : row.values) {
+            this.putString(value);
+        }
+        this.rows++;
+    }
+
+    /**
+     * @return count of rows.
+     */
+    public long size() {
+        return this.rows;
+    }
+
+    /**
+     * @return bytes written to temp file.
+     */
+    public long spilledBytes() {
+        return this.spilledBytes;
+    }
+
+    /**
+     * Remove all rows. buffers are kept for reuse.
+     *
+     * @throws IOException if cannot truncate temp file.
+     */
+    public void clear() throws IOException {
+        if (this.openCursors > 0) throw new IllegalStateException("Store is being read.");
+        this.release();
+        if (this.spill != null) this.spill.truncate(0);
+        this.spilledBytes = 0;
+        this.lastHeader = null;
+        this.rows = 0;
+    }
+
+    @Override
+    public List<Map<String, String>> loadDataSource() throws IOException {
+        List<Map<String, String>> lists = new ArrayList<>();
+        try (DataCursor<Row> cursor = this.openRowCursor()) {
+            while (cursor.hasNext()) {
+                lists.add(cursor.next().asMap());
+            }
+        }
+        return lists;
+    }
+
+    @Override
+    public DataCursor<Map<String, String>> openCursor() throws IOException {
+        final DataCursor<Row> rows = this.openRowCursor();
+        return new DataCursor<Map<String, String>>() {
+            @Override
+            public boolean hasNext() throws IOException {
+                return rows.hasNext();
+            }
+
+            @Override
+            public Map<String, String> next() throws IOException {
+                return rows.next().asMap();
+            }
+
+            @Override
+            public void close() throws IOException {
+                rows.close();
+            }
+        };
+    }
+
+    @Override
+    public DataCursor<Row> openRowCursor() {
+        if (this.closed) throw new IllegalStateException("Store is closed.");
+        this.openCursors++;
+        return new StoreCursor();
+    }
+
+    /**
+     * Release buffers and delete temp file.
+     *
+     * @throws IOException if cannot close temp file.
+     */
+    @Override
+    public void close() throws IOException {
+        this.closed = true;
+        this.chunks.clear();
+        this.free.clear();
+        if (this.spill != null) {
+            this.spill.close();
+            this.spill = null;
+        }
+    }
+
+    private void putByte(byte value) throws IOException {
+        this.writable().put(value);
+    }
+
+    private void putInt(int value) throws IOException {
+        ByteBuffer chunk = this.writable();
+        if (chunk.remaining() >= 4) {
+            chunk.putInt(value);
+            return;
+        }
+        // across buffers.
+        this.putByte((byte) (value >>> 24));
+        this.putByte((byte) (value >>> 16));
+        this.putByte((byte) (value >>> 8));
+        this.putByte((byte) value);
+    }
+
+    private void putString(String value) throws IOException {
+        if (value == null) {
+            this.putInt(-1);
+            return;
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        this.putInt(bytes.length);
+        int offset = 0;
+        while (offset < bytes.length) {
+            ByteBuffer chunk = this.writable();
+            int length = Math.min(chunk.remaining(), bytes.length - offset);
+            chunk.put(bytes, offset, length);
+            offset += length;
+        }
+    }
+
+    /**
+     * @return buffer that has space. spill full buffers if over budget.
+     */
+    private ByteBuffer writable() throws IOException {
+        ByteBuffer last = this.chunks.isEmpty() ? null : this.chunks.get(this.chunks.size() - 1);
+        if (last != null && last.hasRemaining()) return last;
+
+        ByteBuffer next = this.free.poll();
+        if (next == null && (long) (this.allocated + 1) * this.chunkSize <= this.memoryBudget) {
+            next = ByteBuffer.allocateDirect(this.chunkSize);
+            this.allocated++;
+        }
+        if (next == null) {
+            // all buffers are full, write them to file and reuse.
+            if (this.spill == null) this.spill = this.openSpill();
+            for (ByteBuffer chunk : this.chunks) {
+                chunk.flip();
+                while (chunk.hasRemaining()) {
+                    this.spilledBytes += this.spill.write(chunk, this.spilledBytes);
+                }
+            }
+            this.release();
+            next = this.free.poll();
+        }
+        this.chunks.add(next);
+        return next;
+    }
+
+    /**
+     * Move buffers to free list.
+     */
+    private void release() {
+        for (ByteBuffer chunk : this.chunks) {
+            chunk.clear();
+            this.free.add(chunk);
+        }
+        this.chunks.clear();
+    }
+
+    private FileChannel openSpill() throws IOException {
+        Path file = this.spillDirectory == null
+                ? Files.createTempFile("tsv-inserter-", ".rows")
+                : Files.createTempFile(this.spillDirectory, "tsv-inserter-", ".rows");
+        return FileChannel.open(file,
+                StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+    }
+
+    /**
+     * Bytes of temp file, then bytes of buffers.
+     */
+    private final class StoreStream extends InputStream {
+
+        private final long fileEnd = spilledBytes;
+        private final ByteBuffer[] buffers;
+        private final ByteBuffer fileBuffer = ByteBuffer.allocate(64 * 1024);
+        private long filePosition;
+        private int index;
+
+        private StoreStream() {
+            this.buffers = new ByteBuffer[chunks.size()];
+            for (int i = 0; i < this.buffers.length; i++) {
+                ByteBuffer chunk = chunks.get(i).duplicate();
+                chunk.flip();
+                this.buffers[i] = chunk;
+            }
+            this.fileBuffer.flip();
+        }
+
+        @Override
+        public int read() throws IOException {
+            ByteBuffer buffer = this.current();
+            return buffer == null ? -1 : buffer.get() & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) return 0;
+            ByteBuffer buffer = this.current();
+            if (buffer == null) return -1;
+
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        /**
+         * @return buffer that has bytes, or null if reached to end.
+         */
+        private ByteBuffer current() throws IOException {
+            if (this.fileBuffer.hasRemaining()) return this.fileBuffer;
+            if (this.filePosition < this.fileEnd) {
+                this.fileBuffer.clear();
+                this.fileBuffer.limit((int) Math.min(this.fileBuffer.capacity(), this.fileEnd - this.filePosition));
+                while (this.fileBuffer.hasRemaining()) {
+                    int read = spill.read(this.fileBuffer, this.filePosition + this.fileBuffer.position());
+                    if (read < 0) throw new EOFException("Temp file is truncated.");
+                }
+                this.filePosition += this.fileBuffer.limit();
+                this.fileBuffer.flip();
+                return this.fileBuffer;
+            }
+
+            while (this.index < this.buffers.length) {
+                if (this.buffers[this.index].hasRemaining()) return this.buffers[this.index];
+                this.index++;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Decode rows of store.
+     */
+    private final class StoreCursor implements DataCursor<Row> {
+
+        private final DataInputStream in = new DataInputStream(new StoreStream());
+        private final long count = rows;
+        private long read;
+        private RowHeader header;
+        private boolean closed;
+
+        @Override
+        public boolean hasNext() {
+            return this.read < this.count;
+        }
+
+        @Override
+        public Row next() throws IOException {
+            if (this.read >= this.count) throw new NoSuchElementException();
+
+            byte tag = this.in.readByte();
+            if (tag == HEADER) {
+                String[] names = new String[this.in.readInt()];
+                for (int i = 0; i < names.length; i++) {
+                    names[i] = this.readString();
+                }
+                this.header = new RowHeader(names);
+                tag = this.in.readByte();
+            }
+            if (tag != ROW) throw new IOException("Broken row store: tag=" + tag);
+
+            String[] values = new String[this.in.readInt()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = this.readString();
+            }
+            this.read++;
+            return new Row(this.header, values);
+        }
+
+        @Override
+        public void close() {
+            if (this.closed) return;
+            this.closed = true;
+            openCursors--;
+        }
+
+        private String readString() throws IOException {
+            int length = this.in.readInt();
+            if (length < 0) return null;
+
+            byte[] bytes = new byte[length];
+            this.in.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
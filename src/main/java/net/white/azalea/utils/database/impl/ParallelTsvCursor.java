@@ -0,0 +1,253 @@
+package net.white.azalea.utils.database.impl;
+
+import net.white.azalea.utils.database.DataCursor;
+import net.white.azalea.utils.database.Row;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Parse one TSV file on multiple threads.
+ *
+ * File is split into byte ranges that aligned to line start,
+ * and each range is parsed on fork join pool.
+ * Rows in flight are at most {@code parallelism * 2} ranges.
+ *
+ * @author S.Yoshii
+ */
+class ParallelTsvCursor implements DataCursor<Row> {
+
+    /**
+     * Max bytes of one range.
+     */
+    static final long MAX_CHUNK_SIZE = 4L * 1024 * 1024;
+
+    /**
+     * Min bytes of one range.
+     */
+    static final long MIN_CHUNK_SIZE = 64L * 1024;
+
+    private final Path path;
+    private final Charset charset;
+    private final TsvHeader header;
+    private final boolean ordered;
+    private final int window;
+    private final ForkJoinPool pool;
+
+    /**
+     * Ranges that not submitted yet. each is {start, end}.
+     */
+    private final Deque<long[]> ranges;
+
+    /**
+     * Submitted ranges in order.
+     */
+    private final Deque<Chunk> submitted = new ArrayDeque<>();
+
+    /**
+     * Completed ranges for unordered mode.
+     */
+    private final BlockingQueue<Chunk> completed = new LinkedBlockingQueue<>();
+
+    private Iterator<Row> current = Collections.emptyIterator();
+
+    /**
+     * Header bytes and bytes of ranges taken.
+     */
+    private long bytesRead;
+
+    private ParallelTsvCursor(
+            Path path,
+            Charset charset,
+            TsvHeader header,
+            Deque<long[]> ranges,
+            long dataStart,
+            int parallelism,
+            boolean ordered) {
+        this.bytesRead = dataStart;
+        this.path = path;
+        this.charset = charset;
+        this.header = header;
+        this.ranges = ranges;
+        this.ordered = ordered;
+        this.window = parallelism * 2;
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Open parallel cursor.
+     *
+     * @param path        TSV file path.
+     * @param charset     file encoding. must be supported by {@link MappedTsvReader}.
+     * @param parallelism count of parsing threads.
+     * @param ordered     keep rows in file order.
+     * @return cursor, or empty cursor if file has no header.
+     * @throws IOException if cannot read file.
+     */
+    static DataCursor<Row> open(Path path, Charset charset, int parallelism, boolean ordered) throws IOException {
+        TsvHeader header;
+        Deque<long[]> ranges = new ArrayDeque<>();
+        long dataStart;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            MappedTsvReader reader = new MappedTsvReader(
+                    channel, charset, 0, -1, (int) Math.min(MappedTsvReader.DEFAULT_WINDOW_SIZE, Math.max(size, 1)));
+            if (!reader.nextLine()) {
+                return DataCursor.of(Collections.emptyIterator());
+            }
+            header = new TsvHeader(reader.cells());
+            dataStart = reader.position();
+
+            long chunk = Math.max(MIN_CHUNK_SIZE, Math.min(MAX_CHUNK_SIZE, (size - dataStart) / (parallelism * 4L)));
+            long start = dataStart;
+            while (start < size) {
+                long end = alignToLineStart(channel, Math.min(size, start + chunk), size);
+                ranges.add(new long[]{start, end});
+                start = end;
+            }
+        }
+
+        ParallelTsvCursor cursor = new ParallelTsvCursor(path, charset, header, ranges, dataStart, parallelism, ordered);
+        cursor.fill();
+        return cursor;
+    }
+
+    @Override
+    public boolean hasNext() throws IOException {
+        while (!this.current.hasNext()) {
+            if (this.submitted.isEmpty()) return false;
+
+            Chunk next = this.ordered ? this.submitted.peekFirst() : this.take();
+            this.submitted.remove(next);
+            this.current = this.get(next.future).iterator();
+            this.bytesRead += next.end - next.start;
+            this.fill();
+        }
+        return true;
+    }
+
+    @Override
+    public Row next() throws IOException {
+        if (!this.hasNext()) throw new NoSuchElementException();
+        return this.current.next();
+    }
+
+    @Override
+    public long bytesRead() {
+        return this.bytesRead;
+    }
+
+    @Override
+    public void close() {
+        for (Chunk chunk : this.submitted) {
+            chunk.future.cancel(false);
+        }
+        this.pool.shutdownNow();
+    }
+
+    /**
+     * Submit ranges up to window.
+     */
+    private void fill() {
+        while (this.submitted.size() < this.window && !this.ranges.isEmpty()) {
+            long[] range = this.ranges.pollFirst();
+            Chunk chunk = new Chunk(range[0], range[1],
+                    CompletableFuture.supplyAsync(() -> this.parse(range[0], range[1]), this.pool));
+            if (!this.ordered) {
+                chunk.future.whenComplete((rows, e) -> this.completed.add(chunk));
+            }
+            this.submitted.addLast(chunk);
+        }
+    }
+
+    private Chunk take() throws IOException {
+        try {
+            return this.completed.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while parsing.", e);
+        }
+    }
+
+    private List<Row> get(Future<List<Row>> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while parsing.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) throw ((UncheckedIOException) cause).getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Parse one range.
+     */
+    private List<Row> parse(long start, long end) {
+        List<Row> rows = new ArrayList<>();
+        int windowSize = (int) Math.min(MappedTsvReader.DEFAULT_WINDOW_SIZE, end - start);
+        try (MappedTsvReader reader = new MappedTsvReader(
+                FileChannel.open(this.path, StandardOpenOption.READ), this.charset, start, end, windowSize)) {
+            while (reader.nextLine()) {
+                String[] values = reader.values();
+                rows.add(new Row(this.header.header(values.length), values));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return rows;
+    }
+
+    /**
+     * Find first line start at or after position.
+     *
+     * @param channel  file channel.
+     * @param position search start.
+     * @param size     file size.
+     * @return line start offset, or size.
+     * @throws IOException if cannot read file.
+     */
+    static long alignToLineStart(FileChannel channel, long position, long size) throws IOException {
+        if (position >= size) return size;
+
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long offset = position - 1;
+        while (offset < size) {
+            buffer.clear();
+            int read = channel.read(buffer, offset);
+            if (read <= 0) return size;
+            for (int i = 0; i < read; i++) {
+                byte b = buffer.get(i);
+                if (b == '\n' || b == '\r') return offset + i + 1;
+            }
+            offset += read;
+        }
+        return size;
+    }
+
+    /**
+     * Byte range and its parsed rows.
+     */
+    private static final class Chunk {
+        private final long start;
+        private final long end;
+        private final CompletableFuture<List<Row>> future;
+
+        private Chunk(long start, long end, CompletableFuture<List<Row>> future) {
+            this.start = start;
+            this.end = end;
+            this.future = future;
+        }
+    }
+}
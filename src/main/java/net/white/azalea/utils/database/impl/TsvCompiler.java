@@ -0,0 +1,139 @@
+package net.white.azalea.utils.database.impl;
+
+import net.white.azalea.utils.database.*;
+import net.white.azalea.utils.database.schema.ColumnDefinition;
+import net.white.azalea.utils.database.schema.TableDefinition;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * Compile TSV file to binary file of converted values.
+ *
+ * Rows are converted by {@link ColumnConverter} for the table, and stored in columnar blocks.
+ * File header has key from {@link FixtureCache#key(TableDefinition, DataSource, ColumnConverter)},
+ * so stale file is detected.
+ *
+ * @author S.Yoshii
+ * @see CompiledTsvDataSource
+ */
+public final class TsvCompiler {
+
+    private TsvCompiler() {
+    }
+
+    /**
+     * Compile TSV file.
+     *
+     * File is written to temporary file and moved, so broken file is never left.
+     *
+     * @param source   TSV data source.
+     * @param tableDef target table definition.
+     * @param binder   data conversion adapter.
+     * @param output   compiled file path.
+     * @return key of compiled file.
+     * @throws IOException if cannot read or convert TSV, or cannot write file.
+     */
+    public static String compile(TsvDataSource source, TableDefinition tableDef, ColumnConverter binder, Path output)
+            throws IOException {
+        String key = FixtureCache.key(tableDef, source, binder);
+        compile(source, tableDef, binder, output, key);
+        return key;
+    }
+
+    /**
+     * Compile TSV file with known key.
+     */
+    static void compile(TsvDataSource source, TableDefinition tableDef, ColumnConverter binder, Path output, String key)
+            throws IOException {
+        Map<String, ColumnDefinition> columns = new HashMap<>();
+        for (ColumnDefinition c : tableDef.columnDefinitions) {
+            columns.put(c.columnName.toLowerCase(), c);
+        }
+        Map<RowHeader, ValueConverter[]> converters = new HashMap<>();
+
+        Path absolute = output.toAbsolutePath();
+        Path temp = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)));
+             DataCursor<Row> cursor = source.openRowCursor()) {
+
+            out.writeInt(CompiledTsvFormat.MAGIC);
+            out.writeInt(CompiledTsvFormat.VERSION);
+            byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(keyBytes.length);
+            out.write(keyBytes);
+
+            RowHeader header = null;
+            List<Object[]> block = new ArrayList<>(CompiledTsvFormat.BLOCK_ROWS);
+            while (cursor.hasNext()) {
+                Row row = cursor.next();
+                if (!row.header.equals(header) || block.size() >= CompiledTsvFormat.BLOCK_ROWS) {
+                    writeBlock(out, header, block);
+                    header = row.header;
+                }
+
+                // prepare conversion.
+                ValueConverter[] converter = converters.get(row.header);
+                if (converter == null) {
+                    converter = new ValueConverter[row.header.size()];
+                    for (int i = 0; i < converter.length; i++) {
+                        ColumnDefinition cdef = columns.get(row.header.name(i).toLowerCase());
+                        if (cdef == null) {
+                            throw new IOException("Unknown column definition: " + row.header.name(i));
+                        }
+                        converter[i] = binder.converterFor(cdef);
+                    }
+                    converters.put(row.header, converter);
+                }
+
+                Object[] values = new Object[converter.length];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = converter[i].convert(row.values[i]);
+                }
+                block.add(values);
+            }
+            writeBlock(out, header, block);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        try {
+            Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Write rows of same header as one block, and clear rows.
+     */
+    private static void writeBlock(DataOutputStream out, RowHeader header, List<Object[]> rows) throws IOException {
+        if (rows.isEmpty()) return;
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream payload = new DataOutputStream(bytes);
+        for (int i = 0; i < header.size(); i++) {
+            byte[] name = header.name(i).getBytes(StandardCharsets.UTF_8);
+            payload.writeInt(name.length);
+            payload.write(name);
+        }
+        for (int column = 0; column < header.size(); column++) {
+            for (Object[] row : rows) {
+                CompiledTsvFormat.write(payload, row[column]);
+            }
+        }
+        payload.flush();
+
+        out.writeInt(rows.size());
+        out.writeInt(header.size());
+        out.writeInt(bytes.size());
+        bytes.writeTo(out);
+        rows.clear();
+    }
+}
@@ -1,23 +1,38 @@
 package net.white.azalea.utils.database.impl;
 
-import net.white.azalea.utils.database.DataSource;
+import net.white.azalea.utils.database.DataCursor;
+import net.white.azalea.utils.database.ResumableDataSource;
+import net.white.azalea.utils.database.Row;
+
 import java.io.BufferedReader;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
 import java.util.*;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 
 /**
  * From static TSV (Tab separated value) data to column stream.
  *
+ * Files named {@code *.gz} are gzip compressed, and entry of zip file can be read with entry name.
+ * Compressed files are inflated while parsing, without temporary file.
+ *
  * @author S.Yoshii
  */
-public class TsvDataSource implements DataSource {
+public class TsvDataSource implements ResumableDataSource {
 
     /**
      * Path of TSV file.
@@ -29,6 +44,26 @@ public class TsvDataSource implements DataSource {
      */
     private final String fileEncoding;
 
+    /**
+     * Count of parsing threads. 1 means sequential.
+     */
+    private final int parallelism;
+
+    /**
+     * Keep rows in file order on parallel parsing.
+     */
+    private final boolean ordered;
+
+    /**
+     * Entry name in zip file, or null if file is not zip.
+     */
+    private final String entryName;
+
+    /**
+     * Inflate compressed file on other thread.
+     */
+    private final boolean asyncInflate;
+
     /**
      * Specified load target.
      * @param dataSource data source path.
@@ -52,77 +87,292 @@ public class TsvDataSource implements DataSource {
      * @param encoding  source file encoding.
      */
     public TsvDataSource(Path path, String encoding) {
+        this(path, encoding, 1, true);
+    }
+
+    /**
+     * Specified load target with parallel parsing.
+     *
+     * File is split into byte ranges aligned to line start, and parsed on fork join pool.
+     * Parallel parsing is available for ASCII compatible encodings (eg. UTF-8, Shift_JIS),
+     * other encodings are parsed sequentially.
+     *
+     * @param path        load target path.
+     * @param encoding    source file encoding.
+     * @param parallelism count of parsing threads. 1 means sequential.
+     * @param ordered     keep rows in file order. if false, rows are returned as soon as parsed.
+     * @see #openRowCursor(long, long)
+     */
+    public TsvDataSource(Path path, String encoding, int parallelism, boolean ordered) {
+        this(path, null, encoding, parallelism, ordered, false);
+    }
+
+    /**
+     * Specified load target with inflate thread.
+     *
+     * @param path         load target path. {@code *.gz} file is inflated.
+     * @param encoding     source file encoding.
+     * @param asyncInflate inflate compressed file on other thread than parsing.
+     */
+    public TsvDataSource(Path path, String encoding, boolean asyncInflate) {
+        this(path, null, encoding, 1, true, asyncInflate);
+    }
+
+    /**
+     * Specified entry of zip file.
+     *
+     * @param zip       zip file path.
+     * @param entryName entry name of TSV. see {@link #entries(Path)}.
+     * @param encoding  source file encoding.
+     */
+    public TsvDataSource(Path zip, String entryName, String encoding) {
+        this(zip, entryName, encoding, false);
+    }
+
+    /**
+     * Specified entry of zip file with inflate thread.
+     *
+     * @param zip          zip file path.
+     * @param entryName    entry name of TSV. see {@link #entries(Path)}.
+     * @param encoding     source file encoding.
+     * @param asyncInflate inflate entry on other thread than parsing.
+     */
+    public TsvDataSource(Path zip, String entryName, String encoding, boolean asyncInflate) {
+        this(zip, Objects.requireNonNull(entryName, "entryName"), encoding, 1, true, asyncInflate);
+    }
+
+    private TsvDataSource(
+            Path path, String entryName, String encoding, int parallelism, boolean ordered, boolean asyncInflate) {
+        if (parallelism < 1) throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
         this.path = path;
+        this.entryName = entryName;
         this.fileEncoding = encoding;
+        this.parallelism = parallelism;
+        this.ordered = ordered;
+        this.asyncInflate = asyncInflate;
+    }
+
+    /**
+     * List file entries of zip file.
+     *
+     * @param zip zip file path.
+     * @return entry names in zip order.
+     * @throws IOException if cannot read zip file.
+     */
+    public static List<String> entries(Path zip) throws IOException {
+        List<String> entries = new ArrayList<>();
+        try (ZipFile file = new ZipFile(zip.toFile())) {
+            Enumeration<? extends ZipEntry> e = file.entries();
+            while (e.hasMoreElements()) {
+                ZipEntry entry = e.nextElement();
+                if (!entry.isDirectory()) entries.add(entry.getName());
+            }
+        }
+        return entries;
     }
 
     @Override
     public List<Map<String, String>> loadDataSource() throws IOException {
+        List<Map<String, String>> lists = new ArrayList<>();
+        try (DataCursor<Map<String, String>> cursor = this.openCursor()) {
+            while (cursor.hasNext()) {
+                lists.add(cursor.next());
+            }
+        }
+        return lists;
+    }
 
-        // loading.
-        List<String[]> rows = this.loadRows();
+    @Override
+    public DataCursor<Map<String, String>> openCursor() throws IOException {
+        final DataCursor<Row> rows = this.openRowCursor();
+        return new DataCursor<Map<String, String>>() {
+            @Override
+            public boolean hasNext() throws IOException {
+                return rows.hasNext();
+            }
 
-        // load headers.
-        String[] headers = rows.get(0);
+            @Override
+            public Map<String, String> next() throws IOException {
+                return rows.next().asMap();
+            }
 
-        // convert to maps.
-        List<Map<String, String>> lists = new LinkedList<>();
-        for (String[] strs : rows) {
-            if (strs == headers) continue;
+            @Override
+            public void close() throws IOException {
+                rows.close();
+            }
+        };
+    }
 
-            Map<String, String> row = this.zipToMap(headers, strs);
-            lists.add(row);
+    @Override
+    public DataCursor<Row> openRowCursor() throws IOException {
+        Charset charset = Charset.forName(this.fileEncoding);
+        if (this.parallelism > 1 && !this.isCompressed() && MappedTsvReader.isSupported(charset)) {
+            return ParallelTsvCursor.open(this.path, charset, this.parallelism, this.ordered);
         }
+        return this.openRowCursor(0, -1);
+    }
 
-        return lists;
+    /**
+     * Identity from absolute path, file size and last modified time.
+     *
+     * @return identity string.
+     * @throws IOException if cannot read file attributes.
+     */
+    @Override
+    public String identity() throws IOException {
+        Path absolute = this.path.toAbsolutePath().normalize();
+        return absolute + (this.entryName == null ? "" : "!" + this.entryName)
+                + ";size=" + Files.size(absolute) + ";modified=" + Files.getLastModifiedTime(absolute).toMillis();
     }
 
     /**
-     * Zips the list of headers passed in the first argument
-     * and the list of values ​​passed in the second argument
-     * with the same index as the key.
+     * Digest encoding and raw file bytes without parsing.
+     * Entry of zip file is digested after inflate.
      *
-     * @param headers Map key values.
-     * @param strs    Map values.
-     * @return zipped map.
-     * @throws IOException throw if header is null or empty.
+     * @param digest digest to update.
+     * @throws IOException if cannot read file.
      */
-    private Map<String, String> zipToMap(String[] headers, String[] strs) throws IOException {
-        HashMap<String, String> row = new HashMap<>(strs.length);
-        for (int n = 0; n < strs.length; n++) {
-            row.put(this.toLower(headers[n]), this.wrapAsNull(strs[n]));
+    @Override
+    public void digest(MessageDigest digest) throws IOException {
+        digest.update(Charset.forName(this.fileEncoding).name().getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        if (this.entryName != null) {
+            digest.update(this.entryName.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            byte[] buffer = new byte[64 * 1024];
+            try (InputStream in = this.openStream()) {
+                int read;
+                while ((read = in.read(buffer)) >= 0) {
+                    digest.update(buffer, 0, read);
+                }
+            }
+            return;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        try (FileChannel channel = FileChannel.open(this.path, StandardOpenOption.READ)) {
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
         }
-        return row;
     }
 
     /**
-     * Load TSV file as TSV columns list.
-     * @return Read value (as list of String[]).
-     * @throws IOException When failed to access.
+     * Open row cursor from middle of file.
+     *
+     * Memory mapped cursor seeks to offset directly, other cursor skips rows.
+     * Resumed cursor is always sequential, and compressed file cannot seek.
+     *
+     * @param rowIndex count of rows to skip.
+     * @param offset   byte offset of the row, or -1 if unknown.
+     * @return row cursor. caller must close it.
+     * @throws IOException if cannot open.
+     */
+    @Override
+    public Cursor openRowCursor(long rowIndex, long offset) throws IOException {
+        Charset charset = Charset.forName(this.fileEncoding);
+        Cursor cursor;
+        if (this.isCompressed()) {
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(this.openStream(), charset), AsyncInputStream.CHUNK_SIZE);
+            try {
+                cursor = new TsvCursor(reader);
+            } catch (IOException | RuntimeException e) {
+                reader.close();
+                throw e;
+            }
+        } else if (MappedTsvReader.isSupported(charset)) {
+            MappedTsvReader reader = new MappedTsvReader(this.path, charset);
+            try {
+                cursor = new MappedCursor(reader, offset);
+            } catch (IOException | RuntimeException e) {
+                reader.close();
+                throw e;
+            }
+            if (offset >= 0) return cursor;
+        } else {
+            BufferedReader reader = Files.newBufferedReader(this.path, charset);
+            try {
+                cursor = new TsvCursor(reader);
+            } catch (IOException | RuntimeException e) {
+                reader.close();
+                throw e;
+            }
+        }
+
+        // skip committed rows.
+        try {
+            for (long n = 0; n < rowIndex && cursor.hasNext(); n++) {
+                cursor.next();
+            }
+        } catch (IOException | RuntimeException e) {
+            cursor.close();
+            throw e;
+        }
+        return cursor;
+    }
+
+    /**
+     * @return true if file is gzip or zip.
      */
-    private List<String[]> loadRows() throws IOException {
-        List<String[]> rows;
-        try(BufferedReader reader = Files.newBufferedReader(this.path, Charset.forName(this.fileEncoding))) {
-            Stream<String> lines = reader.lines();
+    private boolean isCompressed() {
+        return this.entryName != null || this.path.getFileName().toString().toLowerCase().endsWith(".gz");
+    }
 
-            rows = lines.filter(v -> v != null && v.length() > 0)
-                    .map(str -> str.split("\t"))
-                    .filter(v -> v.length > 0)
-                    .collect(Collectors.toList());
+    /**
+     * Open inflated stream of compressed file.
+     *
+     * @return stream. caller must close it.
+     * @throws IOException if cannot open, or zip has no entry.
+     */
+    private InputStream openStream() throws IOException {
+        InputStream in;
+        if (this.entryName != null) {
+            final ZipFile zip = new ZipFile(this.path.toFile());
+            ZipEntry entry = zip.getEntry(this.entryName);
+            if (entry == null) {
+                zip.close();
+                throw new IOException("Entry not found: " + this.path + "!" + this.entryName);
+            }
+            in = new FilterInputStream(zip.getInputStream(entry)) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        zip.close();
+                    }
+                }
+            };
+        } else {
+            InputStream file = Files.newInputStream(this.path);
+            try {
+                in = new GZIPInputStream(file, AsyncInputStream.CHUNK_SIZE);
+            } catch (IOException | RuntimeException e) {
+                file.close();
+                throw e;
+            }
         }
-        return rows;
+        return this.asyncInflate ? new AsyncInputStream(in) : in;
     }
 
     /**
-     * return lower case column name is not null or empty.
-     * @param header source target string.
-     * @return lower case column name.
-     * @throws IOException Invalid column name.
+     * Read next TSV columns.
+     * @param reader source reader.
+     * @return columns of next not empty line, or null if reached to end.
+     * @throws IOException When failed to access.
      */
-    private String toLower(String header) throws IOException {
-        String test = this.wrapAsNull(header);
-        if (test == null) throw new IOException("Cant set column name as null or empty.");
-        return test.toLowerCase();
+    private String[] readColumns(BufferedReader reader) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.length() == 0) continue;
+
+            String[] columns = line.split("\t");
+            if (columns.length > 0) return columns;
+        }
+        return null;
     }
 
     /**
@@ -133,4 +383,104 @@ public class TsvDataSource implements DataSource {
     private String wrapAsNull(String str) {
         return str == null || str.trim().length() == 0 ? null : str;
     }
-}
\ No newline at end of file
+
+    /**
+     * Read TSV rows from memory mapped file.
+     */
+    private static class MappedCursor implements Cursor {
+
+        private final MappedTsvReader reader;
+        private final TsvHeader header;
+        private boolean hasNext;
+
+        /**
+         * @param reader TSV reader.
+         * @param offset start offset of rows, or -1 to start from next of header.
+         */
+        private MappedCursor(MappedTsvReader reader, long offset) throws IOException {
+            this.reader = reader;
+            this.header = reader.nextLine() ? new TsvHeader(reader.cells()) : null;
+            if (this.header != null && offset > reader.position()) {
+                reader.seek(offset);
+            }
+            this.hasNext = this.header != null && reader.nextLine();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.hasNext;
+        }
+
+        @Override
+        public long position() {
+            return this.hasNext ? this.reader.lineStart() : this.reader.position();
+        }
+
+        @Override
+        public long bytesRead() {
+            return this.position();
+        }
+
+        @Override
+        public Row next() throws IOException {
+            if (!this.hasNext) throw new NoSuchElementException();
+
+            String[] values = this.reader.values();
+            Row row = new Row(this.header.header(values.length), values);
+
+            this.hasNext = this.reader.nextLine();
+            return row;
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.reader.close();
+        }
+    }
+
+    /**
+     * Read TSV rows line by line.
+     */
+    private class TsvCursor implements Cursor {
+
+        private final BufferedReader reader;
+        private final TsvHeader header;
+        private String[] nextColumns;
+
+        private TsvCursor(BufferedReader reader) throws IOException {
+            this.reader = reader;
+            String[] headers = readColumns(reader);
+            this.header = headers == null ? null : new TsvHeader(headers);
+            this.nextColumns = headers == null ? null : readColumns(reader);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.nextColumns != null;
+        }
+
+        @Override
+        public long position() {
+            return -1;
+        }
+
+        @Override
+        public Row next() throws IOException {
+            if (this.nextColumns == null) throw new NoSuchElementException();
+
+            String[] values = this.nextColumns;
+            for (int n = 0; n < values.length; n++) {
+                values[n] = wrapAsNull(values[n]);
+            }
+            Row row = new Row(this.header.header(values.length), values);
+
+            this.nextColumns = readColumns(this.reader);
+            return row;
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.reader.close();
+        }
+    }
+}
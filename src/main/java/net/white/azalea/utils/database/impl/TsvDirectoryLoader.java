@@ -0,0 +1,229 @@
+package net.white.azalea.utils.database.impl;
+
+import net.white.azalea.utils.database.*;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load directory of TSV files, one table per file.
+ *
+ * File name without {@code .tsv} (or {@code .tsv.gz}) is table name.
+ * Zip file of TSV files can be loaded as directory,
+ * and XLSX workbook is loaded as one table per sheet (sheet name is table name).
+ * Tables are sorted into levels by foreign keys (see {@link TableDependencies}),
+ * and tables in same level are loaded in parallel, each on a connection from own pool.
+ *
+ * @author S.Yoshii
+ */
+public class TsvDirectoryLoader {
+
+    private static final String EXTENSION = ".tsv";
+    private static final String GZIP_EXTENSION = ".tsv.gz";
+    private static final String XLSX_EXTENSION = ".xlsx";
+
+    private final ConnectionSupplier connections;
+    private final String schema;
+    private final TableSchemaCache tableSchemaCache;
+    private final int parallelism;
+
+    /**
+     * @param connections connection source. called {@code parallelism} times at most in a load.
+     * @param schemaName  database schema name.
+     * @param parallelism count of tables loaded at same time.
+     */
+    public TsvDirectoryLoader(ConnectionSupplier connections, String schemaName, int parallelism) {
+        this(connections, schemaName, TableSchemaCache.getInstance(), parallelism);
+    }
+
+    /**
+     * @param connections      connection source. called {@code parallelism} times at most in a load.
+     * @param schemaName       database schema name.
+     * @param tableSchemaCache table schema cache.
+     * @param parallelism      count of tables loaded at same time.
+     */
+    public TsvDirectoryLoader(
+            ConnectionSupplier connections,
+            String schemaName,
+            TableSchemaCache tableSchemaCache,
+            int parallelism) {
+        if (parallelism < 1) throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        this.connections = connections;
+        this.schema = schemaName;
+        this.tableSchemaCache = tableSchemaCache;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Load all TSV files in directory or zip file, or all sheets in XLSX file.
+     *
+     * Each level is finished before next level starts.
+     * If a table fails, rest tables are not loaded, and tables already loaded are kept.
+     *
+     * @param directory directory or zip file of TSV files, or XLSX file.
+     * @param encoding  file encoding. not used for XLSX.
+     * @param binder    data conversion adapter. must be thread safe.
+     * @param batchSize max rows in one JDBC batch.
+     * @return executed batch results by table name, in load order.
+     * @throws SQLException Insertion failed or tables have circular references.
+     * @throws IOException  Can't read files.
+     */
+    public Map<String, List<BatchResult>> load(
+            Path directory,
+            String encoding,
+            ColumnConverter binder,
+            int batchSize
+    ) throws SQLException, IOException {
+
+        Map<String, DataSource> files = findFiles(directory, encoding);
+        if (files.isEmpty()) return new LinkedHashMap<>();
+
+        int size = Math.min(this.parallelism, files.size());
+        BlockingQueue<Connection> pool = new ArrayBlockingQueue<>(size);
+        ExecutorService executor = Executors.newFixedThreadPool(size, threadFactory());
+        Throwable failure = null;
+        try {
+            for (int i = 0; i < size; i++) {
+                pool.add(this.connections.get());
+            }
+
+            // load order.
+            Connection first = pool.peek();
+            List<List<String>> levels = TableDependencies.levels(first, this.schema, files.keySet());
+
+            Map<String, List<BatchResult>> results = new LinkedHashMap<>();
+            for (List<String> level : levels) {
+                Map<String, Future<List<BatchResult>>> futures = new LinkedHashMap<>();
+                for (final String table : level) {
+                    final DataSource file = files.get(table.toLowerCase());
+                    futures.put(table, executor.submit(() -> {
+                        Connection connection = pool.take();
+                        try {
+                            return new TableInserter(connection, this.schema, this.tableSchemaCache)
+                                    .insertBatch(table, file, binder, batchSize);
+                        } finally {
+                            pool.offer(connection);
+                        }
+                    }));
+                }
+
+                for (Map.Entry<String, Future<List<BatchResult>>> entry : futures.entrySet()) {
+                    results.put(entry.getKey(), get(entry.getKey(), entry.getValue()));
+                }
+            }
+            return results;
+        } catch (SQLException | IOException | RuntimeException | Error e) {
+            failure = e;
+            throw e;
+        } finally {
+            // wait for running tables before closing connections.
+            executor.shutdownNow();
+            awaitTermination(executor);
+            SQLException closeError = null;
+            for (Connection connection : pool) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    if (closeError == null) closeError = e;
+                    else closeError.addSuppressed(e);
+                }
+            }
+            if (closeError != null) {
+                // keep primary error.
+                if (failure == null) throw closeError;
+                failure.addSuppressed(closeError);
+            }
+        }
+    }
+
+    /**
+     * @return TSV files or sheets by lower case table name.
+     */
+    private static Map<String, DataSource> findFiles(Path directory, String encoding) throws IOException {
+        Map<String, DataSource> files = new TreeMap<>();
+        if (Files.isRegularFile(directory) && directory.toString().toLowerCase().endsWith(XLSX_EXTENSION)) {
+            for (String sheet : XlsxDataSource.sheets(directory)) {
+                if (files.put(sheet.toLowerCase(), new XlsxDataSource(directory, sheet)) != null) {
+                    throw new IOException("Duplicated table sheet: " + directory + "!" + sheet);
+                }
+            }
+            return files;
+        }
+        if (Files.isRegularFile(directory)) {
+            for (String entry : TsvDataSource.entries(directory)) {
+                String table = tableName(entry.substring(entry.lastIndexOf('/') + 1));
+                if (table == null) continue;
+                if (files.put(table, new TsvDataSource(directory, entry, encoding)) != null) {
+                    throw new IOException("Duplicated table file: " + directory + "!" + entry);
+                }
+            }
+            return files;
+        }
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path file : stream) {
+                String table = tableName(file.getFileName().toString());
+                if (!Files.isRegularFile(file) || table == null) continue;
+
+                if (files.put(table, new TsvDataSource(file, encoding)) != null) {
+                    throw new IOException("Duplicated table file: " + file);
+                }
+            }
+        }
+        return files;
+    }
+
+    /**
+     * @return lower case table name, or null if not TSV file.
+     */
+    private static String tableName(String fileName) {
+        String name = fileName.toLowerCase();
+        if (name.endsWith(EXTENSION)) return name.substring(0, name.length() - EXTENSION.length());
+        if (name.endsWith(GZIP_EXTENSION)) return name.substring(0, name.length() - GZIP_EXTENSION.length());
+        return null;
+    }
+
+    /**
+     * Wait for table load, and unwrap error.
+     */
+    private static List<BatchResult> get(String table, Future<List<BatchResult>> future)
+            throws SQLException, IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading " + table, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) throw (SQLException) cause;
+            if (cause instanceof IOException) throw (IOException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IOException("Failed to load " + table, cause);
+        }
+    }
+
+    private static void awaitTermination(ExecutorService executor) {
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ThreadFactory threadFactory() {
+        final AtomicInteger count = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, "tsv-directory-loader-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
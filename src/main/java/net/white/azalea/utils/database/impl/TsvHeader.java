@@ -0,0 +1,63 @@
+package net.white.azalea.utils.database.impl;
+
+import net.white.azalea.utils.database.RowHeader;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Header row of TSV file.
+ *
+ * Lines that have less columns than header row use header of leading columns.
+ * Safe to share between parsing threads.
+ *
+ * @author S.Yoshii
+ */
+final class TsvHeader {
+
+    private final String[] headers;
+    private final AtomicReferenceArray<RowHeader> rowHeaders;
+
+    /**
+     * @param headers cells of header row.
+     */
+    TsvHeader(String[] headers) {
+        this.headers = headers;
+        this.rowHeaders = new AtomicReferenceArray<>(headers.length + 1);
+    }
+
+    /**
+     * @param width column count of row.
+     * @return shared header.
+     * @throws IOException if row has more columns than header, or header is empty.
+     */
+    RowHeader header(int width) throws IOException {
+        if (width > this.headers.length) {
+            throw new IOException("Too many columns: " + width + " columns for " + this.headers.length + " headers.");
+        }
+
+        RowHeader header = this.rowHeaders.get(width);
+        if (header == null) {
+            String[] names = new String[width];
+            for (int n = 0; n < width; n++) {
+                names[n] = toLower(this.headers[n]);
+            }
+            this.rowHeaders.compareAndSet(width, null, new RowHeader(names));
+            header = this.rowHeaders.get(width);
+        }
+        return header;
+    }
+
+    /**
+     * return lower case column name is not null or empty.
+     * @param header source target string.
+     * @return lower case column name.
+     * @throws IOException Invalid column name.
+     */
+    private static String toLower(String header) throws IOException {
+        if (header == null || header.trim().length() == 0) {
+            throw new IOException("Cant set column name as null or empty.");
+        }
+        return header.toLowerCase();
+    }
+}
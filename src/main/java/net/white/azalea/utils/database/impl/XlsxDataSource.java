@@ -0,0 +1,537 @@
+package net.white.azalea.utils.database.impl;
+
+import net.white.azalea.utils.database.DataCursor;
+import net.white.azalea.utils.database.DataSource;
+import net.white.azalea.utils.database.Row;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * From XLSX sheet to column stream.
+ *
+ * First not empty row of the sheet is header, like TSV.
+ * Sheet XML is streamed from zip with StAX, so only shared strings are kept in memory.
+ *
+ * Cell values are read as text:
+ * numbers are raw values (eg. {@code 3.14}), booleans are {@code true} or {@code false},
+ * and numbers with date or time format are formatted by patterns
+ * (default is same as {@link net.white.azalea.utils.database.converters.H2ColumnConverter}).
+ *
+ * @author S.Yoshii
+ */
+public class XlsxDataSource implements DataSource {
+
+    private static final String WORKBOOK = "xl/workbook.xml";
+    private static final String WORKBOOK_RELS = "xl/_rels/workbook.xml.rels";
+    private static final String SHARED_STRINGS = "xl/sharedStrings.xml";
+    private static final String STYLES = "xl/styles.xml";
+
+    private static final int DATE = 1;
+    private static final int TIME = 2;
+    private static final int DATETIME = DATE | TIME;
+
+    /**
+     * Path of XLSX file.
+     */
+    private final Path path;
+
+    /**
+     * Sheet name, or null for first sheet.
+     */
+    private final String sheetName;
+
+    private final DateTimeFormatter datetimeFormatter;
+    private final DateTimeFormatter dateFormatter;
+    private final DateTimeFormatter timeFormatter;
+
+    /**
+     * First sheet of workbook.
+     *
+     * @param path XLSX file path.
+     */
+    public XlsxDataSource(Path path) {
+        this(path, null);
+    }
+
+    /**
+     * @param path      XLSX file path.
+     * @param sheetName sheet name. see {@link #sheets(Path)}.
+     */
+    public XlsxDataSource(Path path, String sheetName) {
+        this(path, sheetName, "yyyy/MM/dd HH:mm:ss", "yyyy/MM/dd", "HH:mm:ss");
+    }
+
+    /**
+     * @param path              XLSX file path.
+     * @param sheetName         sheet name, or null for first sheet.
+     * @param datetimeFormatter pattern of date and time cells.
+     * @param dateFormatter     pattern of date cells.
+     * @param timeFormatter     pattern of time cells.
+     */
+    public XlsxDataSource(
+            Path path,
+            String sheetName,
+            String datetimeFormatter,
+            String dateFormatter,
+            String timeFormatter) {
+        this.path = path;
+        this.sheetName = sheetName;
+        this.datetimeFormatter = DateTimeFormatter.ofPattern(datetimeFormatter);
+        this.dateFormatter = DateTimeFormatter.ofPattern(dateFormatter);
+        this.timeFormatter = DateTimeFormatter.ofPattern(timeFormatter);
+    }
+
+    /**
+     * List sheet names of workbook.
+     *
+     * @param path XLSX file path.
+     * @return sheet names in workbook order.
+     * @throws IOException if cannot read workbook.
+     */
+    public static List<String> sheets(Path path) throws IOException {
+        try (ZipFile zip = new ZipFile(path.toFile())) {
+            return new ArrayList<>(readWorkbook(zip).sheets.keySet());
+        }
+    }
+
+    @Override
+    public List<Map<String, String>> loadDataSource() throws IOException {
+        List<Map<String, String>> lists = new ArrayList<>();
+        try (DataCursor<Row> cursor = this.openRowCursor()) {
+            while (cursor.hasNext()) {
+                lists.add(cursor.next().asMap());
+            }
+        }
+        return lists;
+    }
+
+    @Override
+    public DataCursor<Map<String, String>> openCursor() throws IOException {
+        final DataCursor<Row> rows = this.openRowCursor();
+        return new DataCursor<Map<String, String>>() {
+            @Override
+            public boolean hasNext() throws IOException {
+                return rows.hasNext();
+            }
+
+            @Override
+            public Map<String, String> next() throws IOException {
+                return rows.next().asMap();
+            }
+
+            @Override
+            public void close() throws IOException {
+                rows.close();
+            }
+        };
+    }
+
+    @Override
+    public DataCursor<Row> openRowCursor() throws IOException {
+        ZipFile zip = new ZipFile(this.path.toFile());
+        try {
+            Workbook workbook = readWorkbook(zip);
+            String sheet = this.sheetName == null
+                    ? workbook.sheets.values().stream().findFirst().orElse(null)
+                    : workbook.sheets.get(this.sheetName);
+            if (sheet == null) {
+                throw new IOException("Sheet not found: " + this.path + "!" + this.sheetName);
+            }
+
+            XlsxSharedStrings strings = XlsxSharedStrings.EMPTY;
+            if (zip.getEntry(SHARED_STRINGS) != null) {
+                try (Xml xml = open(zip, SHARED_STRINGS)) {
+                    strings = XlsxSharedStrings.read(xml.reader);
+                }
+            }
+            int[] styles = zip.getEntry(STYLES) == null ? new int[0] : readStyles(zip);
+
+            return new SheetCursor(zip, open(zip, sheet), strings, styles, workbook.date1904);
+        } catch (XMLStreamException e) {
+            zip.close();
+            throw new IOException("Broken workbook: " + this.path, e);
+        } catch (IOException | RuntimeException e) {
+            zip.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Digest sheet name and raw file bytes without parsing.
+     *
+     * @param digest digest to update.
+     * @throws IOException if cannot read file.
+     */
+    @Override
+    public void digest(MessageDigest digest) throws IOException {
+        digest.update(String.valueOf(this.sheetName).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        try (FileChannel channel = FileChannel.open(this.path, StandardOpenOption.READ)) {
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+    }
+
+    /**
+     * Read sheet names and their entry names.
+     */
+    private static Workbook readWorkbook(ZipFile zip) throws IOException {
+        try {
+            // relationship id to entry name.
+            Map<String, String> targets = new HashMap<>();
+            try (Xml xml = open(zip, WORKBOOK_RELS)) {
+                while (xml.reader.hasNext()) {
+                    if (xml.reader.next() == XMLStreamConstants.START_ELEMENT
+                            && "Relationship".equals(xml.reader.getLocalName())) {
+                        String target = xml.reader.getAttributeValue(null, "Target");
+                        targets.put(xml.reader.getAttributeValue(null, "Id"),
+                                target.startsWith("/") ? target.substring(1) : "xl/" + target);
+                    }
+                }
+            }
+
+            Workbook workbook = new Workbook();
+            try (Xml xml = open(zip, WORKBOOK)) {
+                XMLStreamReader reader = xml.reader;
+                while (reader.hasNext()) {
+                    if (reader.next() != XMLStreamConstants.START_ELEMENT) continue;
+
+                    if ("workbookPr".equals(reader.getLocalName())) {
+                        String date1904 = reader.getAttributeValue(null, "date1904");
+                        workbook.date1904 = "1".equals(date1904) || "true".equals(date1904);
+                    } else if ("sheet".equals(reader.getLocalName())) {
+                        String id = null;
+                        for (int i = 0; i < reader.getAttributeCount(); i++) {
+                            String ns = reader.getAttributeNamespace(i);
+                            if ("id".equals(reader.getAttributeLocalName(i)) && ns != null && !ns.isEmpty()) {
+                                id = reader.getAttributeValue(i);
+                            }
+                        }
+                        workbook.sheets.put(reader.getAttributeValue(null, "name"), targets.get(id));
+                    }
+                }
+            }
+            return workbook;
+        } catch (XMLStreamException e) {
+            throw new IOException("Broken workbook: " + zip.getName(), e);
+        }
+    }
+
+    /**
+     * Read date kind of each cell style.
+     *
+     * @return {@link #DATE}, {@link #TIME}, {@link #DATETIME} or 0 by style index.
+     */
+    private static int[] readStyles(ZipFile zip) throws IOException, XMLStreamException {
+        Map<Integer, Integer> customFormats = new HashMap<>();
+        List<Integer> kinds = new ArrayList<>();
+        try (Xml xml = open(zip, STYLES)) {
+            XMLStreamReader reader = xml.reader;
+            boolean cellXfs = false;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String name = reader.getLocalName();
+                    if ("numFmt".equals(name)) {
+                        customFormats.put(
+                                Integer.parseInt(reader.getAttributeValue(null, "numFmtId")),
+                                formatKind(reader.getAttributeValue(null, "formatCode")));
+                    } else if ("cellXfs".equals(name)) {
+                        cellXfs = true;
+                    } else if (cellXfs && "xf".equals(name)) {
+                        String id = reader.getAttributeValue(null, "numFmtId");
+                        int formatId = id == null ? 0 : Integer.parseInt(id);
+                        Integer custom = customFormats.get(formatId);
+                        kinds.add(custom != null ? custom : builtinKind(formatId));
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT && "cellXfs".equals(reader.getLocalName())) {
+                    cellXfs = false;
+                }
+            }
+        }
+        return kinds.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static int builtinKind(int formatId) {
+        if (formatId >= 14 && formatId <= 17) return DATE;
+        if ((formatId >= 18 && formatId <= 21) || (formatId >= 45 && formatId <= 47)) return TIME;
+        if (formatId == 22) return DATETIME;
+        return 0;
+    }
+
+    /**
+     * Date kind of custom format code.
+     */
+    static int formatKind(String formatCode) {
+        if (formatCode == null) return 0;
+
+        // drop quoted text, escaped chars and [color] sections. keep [h] of elapsed time.
+        StringBuilder code = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < formatCode.length(); i++) {
+            char c = formatCode.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (quoted) {
+                continue;
+            } else if (c == '\\' || c == '_' || c == '*') {
+                i++;
+            } else if (c == '[') {
+                int end = formatCode.indexOf(']', i);
+                if (end < 0) break;
+                String section = formatCode.substring(i + 1, end).toLowerCase();
+                if (section.matches("h+|m+|s+")) code.append(section);
+                i = end;
+            } else {
+                code.append(Character.toLowerCase(c));
+            }
+        }
+
+        String str = code.toString();
+        int kind = 0;
+        if (str.indexOf('y') >= 0 || str.indexOf('d') >= 0) kind |= DATE;
+        if (str.indexOf('h') >= 0 || str.indexOf('s') >= 0) kind |= TIME;
+        return kind;
+    }
+
+    private static Xml open(ZipFile zip, String entryName) throws IOException, XMLStreamException {
+        ZipEntry entry = zip.getEntry(entryName);
+        if (entry == null) throw new IOException("Entry not found: " + zip.getName() + "!" + entryName);
+
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        InputStream in = zip.getInputStream(entry);
+        try {
+            return new Xml(in, factory.createXMLStreamReader(in));
+        } catch (XMLStreamException | RuntimeException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Sheets of workbook.
+     */
+    private static final class Workbook {
+        /**
+         * Entry names by sheet name, in workbook order.
+         */
+        private final Map<String, String> sheets = new LinkedHashMap<>();
+        private boolean date1904;
+    }
+
+    /**
+     * XML reader and its stream.
+     */
+    private static final class Xml implements AutoCloseable {
+        private final InputStream in;
+        private final XMLStreamReader reader;
+
+        private Xml(InputStream in, XMLStreamReader reader) {
+            this.in = in;
+            this.reader = reader;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                this.reader.close();
+            } catch (XMLStreamException e) {
+                throw new IOException(e);
+            } finally {
+                this.in.close();
+            }
+        }
+    }
+
+    /**
+     * Read rows of sheet XML.
+     */
+    private class SheetCursor implements DataCursor<Row> {
+
+        private final ZipFile zip;
+        private final Xml xml;
+        private final XlsxSharedStrings strings;
+        private final int[] styles;
+        private final LocalDateTime epoch;
+        private final TsvHeader header;
+        private String[] nextValues;
+
+        private SheetCursor(ZipFile zip, Xml xml, XlsxSharedStrings strings, int[] styles, boolean date1904)
+                throws IOException {
+            this.zip = zip;
+            this.xml = xml;
+            this.strings = strings;
+            this.styles = styles;
+            this.epoch = date1904 ? LocalDateTime.of(1904, 1, 1, 0, 0) : LocalDateTime.of(1899, 12, 30, 0, 0);
+
+            String[] headers = this.readRow();
+            this.header = headers == null ? null : new TsvHeader(headers);
+            this.nextValues = headers == null ? null : this.readRow();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.nextValues != null;
+        }
+
+        @Override
+        public Row next() throws IOException {
+            if (this.nextValues == null) throw new NoSuchElementException();
+
+            String[] values = this.nextValues;
+            Row row = new Row(this.header.header(values.length), values);
+
+            this.nextValues = this.readRow();
+            return row;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                this.xml.close();
+            } finally {
+                this.zip.close();
+            }
+        }
+
+        /**
+         * Read cells of next not empty row.
+         *
+         * @return values up to last not empty cell, or null if reached to end.
+         */
+        private String[] readRow() throws IOException {
+            try {
+                XMLStreamReader reader = this.xml.reader;
+                List<String> cells = new ArrayList<>();
+                while (reader.hasNext()) {
+                    int event = reader.next();
+                    if (event == XMLStreamConstants.START_ELEMENT && "c".equals(reader.getLocalName())) {
+                        String ref = reader.getAttributeValue(null, "r");
+                        int index = ref == null ? cells.size() : columnIndex(ref);
+                        String value = this.readCell(reader);
+                        while (cells.size() <= index) cells.add(null);
+                        cells.set(index, value);
+                    } else if (event == XMLStreamConstants.END_ELEMENT && "row".equals(reader.getLocalName())) {
+                        // trailing empty cells.
+                        int width = cells.size();
+                        while (width > 0 && cells.get(width - 1) == null) width--;
+                        if (width > 0) return cells.subList(0, width).toArray(new String[0]);
+                        cells.clear();
+                    }
+                }
+                return null;
+            } catch (XMLStreamException e) {
+                throw new IOException("Broken sheet: " + path, e);
+            }
+        }
+
+        /**
+         * Read cell value as text.
+         *
+         * @param reader reader at start of {@code c}.
+         * @return value, or null if empty.
+         */
+        private String readCell(XMLStreamReader reader) throws XMLStreamException, IOException {
+            String type = reader.getAttributeValue(null, "t");
+            String style = reader.getAttributeValue(null, "s");
+
+            String value = null;
+            StringBuilder inline = null;
+            int phonetic = 0;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String name = reader.getLocalName();
+                    if ("v".equals(name)) {
+                        value = reader.getElementText();
+                    } else if ("rPh".equals(name)) {
+                        phonetic++;
+                    } else if ("t".equals(name) && phonetic == 0) {
+                        if (inline == null) inline = new StringBuilder();
+                        inline.append(reader.getElementText());
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    String name = reader.getLocalName();
+                    if ("rPh".equals(name)) phonetic--;
+                    if ("c".equals(name)) break;
+                }
+            }
+
+            String text;
+            if ("inlineStr".equals(type)) {
+                text = inline == null ? null : inline.toString();
+            } else if (value == null) {
+                text = null;
+            } else if ("s".equals(type)) {
+                text = this.strings.get(Integer.parseInt(value.trim()));
+            } else if ("b".equals(type)) {
+                text = "1".equals(value.trim()) ? "true" : "false";
+            } else if ("str".equals(type) || "e".equals(type)) {
+                text = value;
+            } else {
+                int kind = style == null ? 0 : this.kind(Integer.parseInt(style));
+                text = kind == 0 ? value : this.formatDate(value, kind);
+            }
+            return text == null || text.trim().length() == 0 ? null : text;
+        }
+
+        private int kind(int style) {
+            return style < this.styles.length ? this.styles[style] : 0;
+        }
+
+        /**
+         * Format serial date number.
+         */
+        private String formatDate(String value, int kind) throws IOException {
+            try {
+                double serial = Double.parseDouble(value);
+                long millis = Math.round(serial * 24 * 60 * 60 * 1000);
+                LocalDateTime datetime = this.epoch.plus(millis, ChronoUnit.MILLIS);
+                if (kind == TIME) return datetime.toLocalTime().format(timeFormatter);
+                if (kind == DATE) return datetime.toLocalDate().format(dateFormatter);
+                return datetime.format(datetimeFormatter);
+            } catch (NumberFormatException e) {
+                throw new IOException("Invalid date cell: " + value, e);
+            }
+        }
+    }
+
+    /**
+     * Column index of cell reference.
+     *
+     * @param ref cell reference. eg. {@code B12}.
+     * @return zero based column index.
+     */
+    static int columnIndex(String ref) {
+        int index = 0;
+        for (int i = 0; i < ref.length(); i++) {
+            char c = ref.charAt(i);
+            if (c < 'A' || c > 'Z') break;
+            index = index * 26 + (c - 'A' + 1);
+        }
+        return index - 1;
+    }
+}
@@ -0,0 +1,103 @@
+package net.white.azalea.utils.database.impl;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Shared strings table of XLSX workbook.
+ *
+ * All strings are kept in one char array with start offsets,
+ * and String is created only when a cell refers to it.
+ *
+ * @author S.Yoshii
+ */
+final class XlsxSharedStrings {
+
+    static final XlsxSharedStrings EMPTY = new XlsxSharedStrings();
+
+    private char[] chars = new char[4096];
+    private int length;
+
+    /**
+     * Start offset of each string, and end of last string.
+     */
+    private int[] offsets = new int[257];
+    private int count;
+
+    private XlsxSharedStrings() {
+    }
+
+    /**
+     * Read {@code sharedStrings.xml}.
+     *
+     * Text of rich text runs is concatenated, and phonetic runs ({@code rPh}) are ignored.
+     *
+     * @param reader XML reader at start of document.
+     * @return shared strings.
+     * @throws XMLStreamException if XML is broken.
+     */
+    static XlsxSharedStrings read(XMLStreamReader reader) throws XMLStreamException {
+        XlsxSharedStrings strings = new XlsxSharedStrings();
+        int phonetic = 0;
+        while (reader.hasNext()) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    String name = reader.getLocalName();
+                    if ("rPh".equals(name)) {
+                        phonetic++;
+                    } else if ("t".equals(name) && phonetic == 0) {
+                        strings.append(reader.getElementText());
+                    }
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    if ("rPh".equals(reader.getLocalName())) {
+                        phonetic--;
+                    } else if ("si".equals(reader.getLocalName())) {
+                        strings.end();
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        return strings;
+    }
+
+    /**
+     * @param index string index.
+     * @return string.
+     * @throws IOException if index is out of table.
+     */
+    String get(int index) throws IOException {
+        if (index < 0 || index >= this.count) {
+            throw new IOException("Shared string not found: " + index);
+        }
+        return new String(this.chars, this.offsets[index], this.offsets[index + 1] - this.offsets[index]);
+    }
+
+    /**
+     * @return count of strings.
+     */
+    int size() {
+        return this.count;
+    }
+
+    private void append(String text) {
+        if (this.length + text.length() > this.chars.length) {
+            this.chars = Arrays.copyOf(this.chars, Math.max(this.chars.length * 2, this.length + text.length()));
+        }
+        text.getChars(0, text.length(), this.chars, this.length);
+        this.length += text.length();
+    }
+
+    private void end() {
+        if (this.count + 2 > this.offsets.length) {
+            this.offsets = Arrays.copyOf(this.offsets, this.offsets.length * 2);
+        }
+        this.count++;
+        this.offsets[this.count] = this.length;
+    }
+}
@@ -0,0 +1,147 @@
+package net.white.azalea.utils.database;
+
+import net.white.azalea.utils.database.converters.H2ColumnConverter;
+import net.white.azalea.utils.database.impl.TsvDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.*;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncTableInserterTest {
+
+    private static final String URL = "jdbc:h2:mem:async;DB_CLOSE_DELAY=-1";
+
+    private Connection connection;
+    private ExecutorService executor;
+
+    @BeforeAll
+    static void beforeClass() throws Exception {
+        Class.forName("org.h2.Driver");
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        this.connection = DriverManager.getConnection(URL, "sa", "");
+        this.executor = AsyncTableInserter.newExecutor();
+        try (Statement statement = this.connection.createStatement()) {
+            for (String table : new String[]{"TEST_ASYNC1", "TEST_ASYNC2"}) {
+                statement.execute("CREATE TABLE " + table + " (" +
+                        "id BIGINT AUTO_INCREMENT, " +
+                        "Column1 VARCHAR(32), " +
+                        "Column2 INTEGER, " +
+                        "Column3 CHAR(32), " +
+                        "Column4 BOOLEAN, " +
+                        "Column5 DECIMAL(10,2), " +
+                        "Column6 DOUBLE, " +
+                        "Column7 REAL, " +
+                        "Column8 TIME," +
+                        "Column9 DATE," +
+                        "Column10 TIMESTAMP, " +
+                        "PRIMARY KEY(id)" +
+                        ")");
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        this.executor.shutdownNow();
+        try (Statement statement = this.connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+        this.connection.close();
+    }
+
+    @Test
+    void insertBatch() throws Exception {
+        AtomicLong rows = new AtomicLong();
+        LoadListener progress = new LoadListener() {
+            @Override
+            public void batchExecuted(String table, int count, long nanos) {
+                rows.addAndGet(count);
+            }
+        };
+        AsyncTableInserter inserter = new AsyncTableInserter(
+                () -> DriverManager.getConnection(URL, "sa", ""), "", TableSchemaCache.getInstance(), progress, this.executor);
+
+        CompletableFuture<List<BatchResult>> first =
+                inserter.insertBatch("TEST_ASYNC1", source(), new H2ColumnConverter(), 10);
+        CompletableFuture<List<BatchResult>> second =
+                inserter.insertBatch("TEST_ASYNC2", source(), new H2ColumnConverter(), 1);
+        CompletableFuture.allOf(first, second).get(10, TimeUnit.SECONDS);
+
+        assertAll(
+                () -> assertEquals(2, first.get().get(0).affectedRows()),
+                () -> assertEquals(2, second.get().size()),
+                () -> assertEquals(4, rows.get()),
+                () -> assertEquals(2, count("TEST_ASYNC1")),
+                () -> assertEquals(2, count("TEST_ASYNC2"))
+        );
+    }
+
+    @Test
+    void cancel() throws Exception {
+        AsyncTableInserter inserter =
+                new AsyncTableInserter(() -> DriverManager.getConnection(URL, "sa", ""), "", this.executor);
+
+        // cancel while first row is converted.
+        AtomicReference<Future<?>> self = new AtomicReference<>();
+        CountDownLatch started = new CountDownLatch(1);
+        AsyncTableInserter.LoadFuture<List<BatchResult>> future = inserter.insertBatch(
+                "TEST_ASYNC1", source(), new H2ColumnConverter(),
+                row -> {
+                    try {
+                        started.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    self.get().cancel(true);
+                    return row;
+                }, 10);
+        self.set(future);
+        started.countDown();
+        future.stopped().get(10, TimeUnit.SECONDS);
+
+        assertAll(
+                () -> assertTrue(future.isCancelled()),
+                () -> assertThrows(CancellationException.class, future::join),
+                () -> assertEquals(0, count("TEST_ASYNC1"))
+        );
+    }
+
+    @Test
+    void connectionError() throws Exception {
+        AsyncTableInserter inserter = new AsyncTableInserter(() -> {
+            throw new SQLException("no connection");
+        }, "", this.executor);
+
+        CompletableFuture<List<BatchResult>> future =
+                inserter.insertBatch("TEST_ASYNC1", source(), new H2ColumnConverter(), 10);
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof SQLException);
+    }
+
+    private int count(String table) throws SQLException {
+        try (Statement st = this.connection.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private static DataSource source() throws Exception {
+        Path path = Paths.get(ClassLoader.getSystemResource("TableInserterTest.tsv").toURI());
+        return new TsvDataSource(path, "UTF-8");
+    }
+}
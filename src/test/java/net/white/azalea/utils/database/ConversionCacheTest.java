@@ -0,0 +1,70 @@
+package net.white.azalea.utils.database;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConversionCacheTest {
+
+    @Test
+    void convertOncePerText() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        ConversionCache cache = new ConversionCache(value -> {
+            calls.incrementAndGet();
+            return value == null ? null : new BigDecimal(value);
+        });
+
+        Object first = cache.convert("1.50");
+        Object second = cache.convert(new String("1.50"));
+        cache.convert(null);
+        cache.convert(null);
+
+        assertAll(
+                () -> assertEquals(new BigDecimal("1.50"), first),
+                () -> assertSame(first, second),
+                () -> assertEquals(3, calls.get()),
+                () -> assertTrue(cache.isEnabled())
+        );
+    }
+
+    @Test
+    void disableForHighCardinality() throws Exception {
+        ConversionCache cache = new ConversionCache(Integer::parseInt);
+        for (int i = 0; i <= ConversionCache.MAX_ENTRIES; i++) {
+            assertEquals(i, cache.convert(String.valueOf(i)));
+        }
+        assertFalse(cache.isEnabled());
+        assertEquals(7, cache.convert("7"));
+    }
+
+    @Test
+    void copyDate() throws Exception {
+        ConversionCache cache = new ConversionCache(value -> new Date(Long.parseLong(value)));
+        Date first = (Date) cache.convert("1000");
+        first.setTime(0);
+        Date second = (Date) cache.convert("1000");
+        Date third = (Date) cache.convert("1000");
+
+        assertAll(
+                () -> assertEquals(1000, second.getTime()),
+                () -> assertNotSame(second, third),
+                () -> assertTrue(cache.isEnabled())
+        );
+    }
+
+    @Test
+    void disableForMutableValue() throws Exception {
+        ConversionCache cache = new ConversionCache(value -> value.split(","));
+        String[] first = (String[]) cache.convert("a,b");
+
+        assertAll(
+                () -> assertArrayEquals(new String[]{"a", "b"}, first),
+                () -> assertFalse(cache.isEnabled()),
+                () -> assertNotSame(first, cache.convert("a,b"))
+        );
+    }
+}
@@ -0,0 +1,145 @@
+package net.white.azalea.utils.database;
+
+import net.white.azalea.utils.database.converters.H2ColumnConverter;
+import net.white.azalea.utils.database.impl.TsvDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TimeZone;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FixtureCacheTest {
+
+    private Connection connection;
+    private Path directory;
+
+    @BeforeAll
+    static void beforeClass() throws Exception {
+        Class.forName("org.h2.Driver");
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        this.connection = DriverManager.getConnection("jdbc:h2:mem:fixture", "sa", "");
+        try (Statement statement = this.connection.createStatement()) {
+            statement.execute("CREATE TABLE TEST_FIXTURE (" +
+                    "id BIGINT AUTO_INCREMENT, " +
+                    "Column1 VARCHAR(32), " +
+                    "Column2 INTEGER, " +
+                    "Column3 CHAR(32), " +
+                    "Column4 BOOLEAN, " +
+                    "Column5 DECIMAL(10,2), " +
+                    "Column6 DOUBLE, " +
+                    "Column7 REAL, " +
+                    "Column8 TIME," +
+                    "Column9 DATE," +
+                    "Column10 TIMESTAMP, " +
+                    "PRIMARY KEY(id)" +
+                    ")");
+        }
+        this.directory = Files.createTempDirectory("FixtureCacheTest");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        this.connection.close();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(this.directory)) {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(this.directory);
+    }
+
+    @Test
+    void load() throws Exception {
+        FixtureCache cache = new FixtureCache(this.connection, "", this.directory);
+        TsvDataSource source =
+                new TsvDataSource(Paths.get(ClassLoader.getSystemResource("TableInserterTest.tsv").toURI()), "UTF-8");
+
+        // first load inserts, and next load restores.
+        boolean first = cache.load("TEST_FIXTURE", source, new H2ColumnConverter());
+        List<String> inserted = this.rows();
+        try (Statement st = this.connection.createStatement()) {
+            st.executeUpdate("UPDATE TEST_FIXTURE SET Column1 = 'changed'");
+        }
+        boolean second = cache.load("TEST_FIXTURE", source, new H2ColumnConverter());
+        List<String> restored = this.rows();
+
+        // other converter settings.
+        H2ColumnConverter other = new H2ColumnConverter(
+                TimeZone.getDefault(), "yyyy/MM/dd HH:mm:ss", "yyyy/MM/dd", "HH:mm:ss", true);
+        boolean third = cache.load("TEST_FIXTURE", source, other);
+
+        assertAll(
+                () -> assertFalse(first),
+                () -> assertTrue(second),
+                () -> assertFalse(third),
+                () -> assertEquals(2, inserted.size()),
+                () -> assertEquals(inserted, restored),
+                () -> assertEquals(2, this.snapshots())
+        );
+
+        cache.clear();
+        assertEquals(0, this.snapshots());
+    }
+
+    @Test
+    void loadUnknownConfiguration() throws Exception {
+        FixtureCache cache = new FixtureCache(this.connection, "", this.directory);
+        TsvDataSource source =
+                new TsvDataSource(Paths.get(ClassLoader.getSystemResource("TableInserterTest.tsv").toURI()), "UTF-8");
+        ColumnConverter binder = new H2ColumnConverter() {
+            @Override
+            public String configuration() {
+                return null;
+            }
+        };
+
+        // always inserts.
+        boolean first = cache.load("TEST_FIXTURE", source, binder);
+        boolean second = cache.load("TEST_FIXTURE", source, binder);
+
+        assertAll(
+                () -> assertFalse(first),
+                () -> assertFalse(second),
+                () -> assertEquals(2, this.rows().size()),
+                () -> assertEquals(0, this.snapshots()),
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> FixtureCache.key(null, source, binder))
+        );
+    }
+
+    private List<String> rows() throws SQLException {
+        List<String> rows = new ArrayList<>();
+        try (Statement st = this.connection.createStatement();
+             ResultSet rs = st.executeQuery("SELECT * FROM TEST_FIXTURE ORDER BY id")) {
+            while (rs.next()) {
+                StringBuilder row = new StringBuilder();
+                for (int i = 1; i <= rs.getMetaData().getColumnCount(); i++) {
+                    row.append(rs.getObject(i)).append('\t');
+                }
+                rows.add(row.toString());
+            }
+        }
+        return rows;
+    }
+
+    private int snapshots() throws Exception {
+        int count = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(this.directory, "*.snapshot")) {
+            for (Path ignored : files) count++;
+        }
+        return count;
+    }
+}
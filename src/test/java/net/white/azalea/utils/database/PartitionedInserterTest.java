@@ -0,0 +1,119 @@
+package net.white.azalea.utils.database;
+
+import net.white.azalea.utils.database.converters.H2ColumnConverter;
+import net.white.azalea.utils.database.impl.TsvDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.*;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartitionedInserterTest {
+
+    private static final String URL = "jdbc:h2:mem:partition;DB_CLOSE_DELAY=-1";
+
+    private Connection connection;
+    private Path file;
+
+    @BeforeAll
+    static void beforeClass() throws Exception {
+        Class.forName("org.h2.Driver");
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        this.connection = DriverManager.getConnection(URL, "sa", "");
+        try (Statement statement = this.connection.createStatement()) {
+            statement.execute("CREATE TABLE TEST_PARTITION (" +
+                    "id BIGINT AUTO_INCREMENT, " +
+                    "Column1 VARCHAR(32), " +
+                    "Column2 INTEGER, " +
+                    "PRIMARY KEY(id)" +
+                    ")");
+        }
+
+        StringBuilder builder = new StringBuilder("Column1\tColumn2\n");
+        for (int i = 0; i < 1000; i++) {
+            builder.append("line").append(i).append('\t').append(i).append('\n');
+        }
+        this.file = Files.createTempFile("PartitionedInserterTest", ".tsv");
+        Files.write(this.file, builder.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        try (Statement statement = this.connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+        this.connection.close();
+        Files.delete(this.file);
+    }
+
+    @Test
+    void insert() throws Exception {
+        for (PartitionedInserter.Mode mode : PartitionedInserter.Mode.values()) {
+            PartitionedInserter inserter = new PartitionedInserter(this::connect, "", 4, 4);
+            List<BatchResult> results = inserter.insert(
+                    "TEST_PARTITION", new TsvDataSource(this.file, "UTF-8"), new H2ColumnConverter(), 50, mode);
+
+            int affected = mode == PartitionedInserter.Mode.STAGING
+                    ? results.get(results.size() - 1).affectedRows()
+                    : results.stream().mapToInt(BatchResult::affectedRows).sum();
+            assertAll(
+                    mode.name(),
+                    () -> assertEquals(1000, affected),
+                    () -> assertEquals(1000, this.count("SELECT COUNT(DISTINCT Column2) FROM TEST_PARTITION")),
+                    () -> assertEquals(1, this.count("SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_SCHEMA = 'PUBLIC'"))
+            );
+
+            try (Statement statement = this.connection.createStatement()) {
+                statement.execute("DELETE FROM TEST_PARTITION");
+            }
+        }
+    }
+
+    @Test
+    void insertAllOrNothing() throws Exception {
+        for (PartitionedInserter.Mode mode : new PartitionedInserter.Mode[]{
+                PartitionedInserter.Mode.COORDINATED, PartitionedInserter.Mode.STAGING}) {
+            PartitionedInserter inserter = new PartitionedInserter(this::connect, "", 4, 4);
+
+            assertThrows(SQLException.class, () -> inserter.insert(
+                    "TEST_PARTITION",
+                    new TsvDataSource(this.file, "UTF-8"),
+                    new H2ColumnConverter(),
+                    src -> {
+                        if ("line500".equals(src.get("column1"))) throw new SQLException("failed");
+                        return src;
+                    },
+                    50,
+                    mode
+            ), mode.name());
+
+            assertAll(
+                    mode.name(),
+                    () -> assertEquals(0, this.count("SELECT COUNT(*) FROM TEST_PARTITION")),
+                    () -> assertEquals(1, this.count("SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_SCHEMA = 'PUBLIC'"))
+            );
+        }
+    }
+
+    private Connection connect() throws SQLException {
+        return DriverManager.getConnection(URL, "sa", "");
+    }
+
+    private int count(String sql) throws SQLException {
+        try (Statement st = this.connection.createStatement();
+             ResultSet rs = st.executeQuery(sql)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package net.white.azalea.utils.database;
+
+import net.white.azalea.utils.database.converters.H2ColumnConverter;
+import net.white.azalea.utils.database.impl.TsvDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Paths;
+import java.sql.*;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PipelinedInserterTest {
+
+    private Connection connection;
+
+    @BeforeAll
+    static void beforeClass() throws Exception {
+        Class.forName("org.h2.Driver");
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        this.connection = DriverManager.getConnection("jdbc:h2:mem:pipeline", "sa", "");
+        try (Statement statement = this.connection.createStatement()) {
+            statement.execute("CREATE TABLE TEST_PIPELINE (" +
+                    "id BIGINT AUTO_INCREMENT, " +
+                    "Column1 VARCHAR(32), " +
+                    "Column2 INTEGER, " +
+                    "Column3 CHAR(32), " +
+                    "Column4 BOOLEAN, " +
+                    "Column5 DECIMAL(10,2), " +
+                    "Column6 DOUBLE, " +
+                    "Column7 REAL, " +
+                    "Column8 TIME," +
+                    "Column9 DATE," +
+                    "Column10 TIMESTAMP, " +
+                    "PRIMARY KEY(id)" +
+                    ")");
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        this.connection.close();
+    }
+
+    @Test
+    void insert() throws Exception {
+        PipelinedInserter inserter = new PipelinedInserter(this.connection, "", 2, 1);
+        List<BatchResult> results = inserter.insert(
+                "TEST_PIPELINE",
+                new TsvDataSource(Paths.get(ClassLoader.getSystemResource("TableInserterTest.tsv").toURI()), "UTF-8"),
+                new H2ColumnConverter(),
+                10
+        );
+
+        assertEquals(2, results.get(0).affectedRows());
+        try (PreparedStatement st = this.connection.prepareStatement("SELECT Column1, Column2 FROM TEST_PIPELINE ORDER BY id")) {
+            try (ResultSet rs = st.executeQuery()) {
+                assertTrue(rs.next());
+                assertEquals("line1", rs.getString(1));
+                assertEquals(65535, rs.getInt(2));
+                assertTrue(rs.next());
+                assertEquals("line2", rs.getString(1));
+                assertEquals(8192, rs.getInt(2));
+                assertFalse(rs.next());
+            }
+        }
+    }
+
+    @Test
+    void insertWithConversionError() throws Exception {
+        PipelinedInserter inserter = new PipelinedInserter(this.connection, "", 2, 1);
+
+        assertThrows(SQLException.class, () -> inserter.insert(
+                "TEST_PIPELINE",
+                new TsvDataSource(Paths.get(ClassLoader.getSystemResource("TableInserterTest.tsv").toURI()), "UTF-8"),
+                new H2ColumnConverter(),
+                src -> {
+                    throw new SQLException("broken");
+                },
+                10
+        ));
+    }
+}
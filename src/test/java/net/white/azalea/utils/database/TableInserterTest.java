@@ -8,11 +8,14 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.sql.*;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -120,4 +123,283 @@ class TableInserterTest {
             }
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void insertBatch() throws Exception {
+        // Exec
+        TableInserter inserter = new TableInserter(this.connection, "");
+        List<BatchResult> results = inserter.insertBatch(
+                "TEST_INSERT",
+                new TsvDataSource(Paths.get(ClassLoader.getSystemResource("TableInserterTest.tsv").toURI()), "UTF-8"),
+                new H2ColumnConverter(),
+                1
+        );
+
+        // checking
+        assertAll(
+                () -> assertEquals(2, results.size()),
+                () -> assertEquals(1, results.get(0).affectedRows()),
+                () -> assertEquals(1, results.get(1).affectedRows())
+        );
+        try (PreparedStatement st = this.connection.prepareStatement("SELECT Column1, Column2 FROM TEST_INSERT ORDER BY id")) {
+            try (ResultSet rs = st.executeQuery()) {
+                assertTrue(rs.next());
+                assertEquals("line1", rs.getString(1));
+                assertEquals(65535, rs.getInt(2));
+                assertTrue(rs.next());
+                assertEquals("line2", rs.getString(1));
+                assertEquals(8192, rs.getInt(2));
+                assertFalse(rs.next());
+            }
+        }
+    }
+
+    @Test
+    void insertBatchMixedColumnSets() throws Exception {
+        // rows 2 and 4 have empty last cell, so they have other column set.
+        Path file = Files.createTempFile("TableInserterTest", ".tsv");
+        Files.write(file, "Column1\tColumn2\nA1\t1\nB2\t\nA3\t3\nB4\t\nA5\t5\n".getBytes("UTF-8"));
+
+        // Exec
+        TableInserter inserter = new TableInserter(this.connection, "");
+        List<BatchResult> results;
+        try {
+            results = inserter.insertBatch("TEST_INSERT", new TsvDataSource(file, "UTF-8"), new H2ColumnConverter(), 100);
+        } finally {
+            Files.delete(file);
+        }
+
+        // checking
+        List<String> names = new ArrayList<>();
+        try (PreparedStatement st = this.connection.prepareStatement("SELECT Column1 FROM TEST_INSERT ORDER BY id")) {
+            try (ResultSet rs = st.executeQuery()) {
+                while (rs.next()) {
+                    names.add(rs.getString(1));
+                }
+            }
+        }
+        assertAll(
+                () -> assertEquals(5, results.size()),
+                () -> assertEquals(Arrays.asList("A1", "B2", "A3", "B4", "A5"), names)
+        );
+    }
+
+    @Test
+    void insertEach() throws Exception {
+        TableInserter inserter = new TableInserter(this.connection, "");
+        List<Object> names = new ArrayList<>();
+        long first = inserter.insertEach(
+                "TEST_INSERT",
+                new TsvDataSource(Paths.get(ClassLoader.getSystemResource("TableInserterTest.tsv").toURI()), "UTF-8"),
+                new H2ColumnConverter(),
+                row -> row,
+                (connection, values) -> names.add(values.get("column1"))
+        );
+        long second = inserter.insertEach(
+                "TEST_INSERT",
+                new TsvDataSource(Paths.get(ClassLoader.getSystemResource("TableInserterTest.tsv").toURI()), "UTF-8"),
+                new H2ColumnConverter(),
+                row -> row,
+                TableInserter.ResultSink.NONE
+        );
+
+        assertAll(
+                () -> assertEquals(2, first),
+                () -> assertEquals(2, second),
+                () -> assertEquals(Arrays.asList("line1", "line2"), names)
+        );
+    }
+
+    @Test
+    void insertBatchWithGeneratedKeys() throws Exception {
+        TableInserter inserter = new TableInserter(this.connection, "");
+        List<Object> ids = new ArrayList<>();
+        List<BatchResult> results = inserter.insertBatch(
+                "TEST_INSERT",
+                new TsvDataSource(Paths.get(ClassLoader.getSystemResource("TableInserterTest.tsv").toURI()), "UTF-8"),
+                new H2ColumnConverter(),
+                row -> row,
+                10,
+                new String[]{"ID"},
+                (connection, key) -> ids.add(key.get("id"))
+        );
+
+        assertAll(
+                () -> assertEquals(1, results.size()),
+                () -> assertEquals(Arrays.asList(1L, 2L), ids)
+        );
+    }
+
+    @Test
+    void insertMultiRow() throws Exception {
+        // Exec
+        TableInserter inserter = new TableInserter(this.connection, "");
+        List<BatchResult> results = inserter.insertMultiRow(
+                "TEST_INSERT",
+                new TsvDataSource(Paths.get(ClassLoader.getSystemResource("TableInserterTest.tsv").toURI()), "UTF-8"),
+                new H2ColumnConverter(),
+                100
+        );
+
+        // checking
+        assertAll(
+                () -> assertEquals(1, results.size()),
+                () -> assertEquals(2, results.get(0).affectedRows()),
+                () -> assertTrue(results.get(0).sql.endsWith("(?,?,?,?,?,?,?,?,?,?), (?,?,?,?,?,?,?,?,?,?)"))
+        );
+        try (PreparedStatement st = this.connection.prepareStatement("SELECT Column1 FROM TEST_INSERT ORDER BY id")) {
+            try (ResultSet rs = st.executeQuery()) {
+                assertTrue(rs.next());
+                assertEquals("line1", rs.getString(1));
+                assertTrue(rs.next());
+                assertEquals("line2", rs.getString(1));
+                assertFalse(rs.next());
+            }
+        }
+    }
+
+    @Test
+    void insertMultiRowMixedColumnSets() throws Exception {
+        // rows 2 and 4 have empty last cell, so they have other column set.
+        Path file = Files.createTempFile("TableInserterTest", ".tsv");
+        Files.write(file, "Column1\tColumn2\nA1\t1\nB2\t\nA3\t3\nB4\t\nA5\t5\n".getBytes("UTF-8"));
+
+        // Exec
+        TableInserter inserter = new TableInserter(this.connection, "");
+        List<BatchResult> results;
+        try {
+            results = inserter.insertMultiRow("TEST_INSERT", new TsvDataSource(file, "UTF-8"), new H2ColumnConverter(), 100);
+        } finally {
+            Files.delete(file);
+        }
+
+        // checking
+        List<String> names = new ArrayList<>();
+        try (PreparedStatement st = this.connection.prepareStatement("SELECT Column1 FROM TEST_INSERT ORDER BY id")) {
+            try (ResultSet rs = st.executeQuery()) {
+                while (rs.next()) {
+                    names.add(rs.getString(1));
+                }
+            }
+        }
+        assertAll(
+                () -> assertEquals(5, results.size()),
+                () -> assertEquals(Arrays.asList("A1", "B2", "A3", "B4", "A5"), names)
+        );
+    }
+
+    @Test
+    void insertResumable() throws Exception {
+        TableInserter inserter = new TableInserter(this.connection, "");
+        TsvDataSource source =
+                new TsvDataSource(Paths.get(ClassLoader.getSystemResource("TableInserterTest.tsv").toURI()), "UTF-8");
+        Path checkpointFile = Files.createTempFile("TableInserterTest", ".checkpoint");
+        Files.delete(checkpointFile);
+
+        // fail at second row.
+        assertThrows(SQLException.class, () -> inserter.insertResumable(
+                "TEST_INSERT",
+                source,
+                new H2ColumnConverter(),
+                src -> {
+                    if ("line2".equals(src.get("column1"))) throw new SQLException("failed");
+                    return src;
+                },
+                10,
+                1,
+                checkpointFile
+        ));
+        Checkpoint checkpoint = Checkpoint.read(checkpointFile);
+        assertAll(
+                () -> assertNotNull(checkpoint),
+                () -> assertEquals(1, checkpoint.rowIndex),
+                () -> assertTrue(checkpoint.offset > 0),
+                () -> assertTrue(this.connection.getAutoCommit())
+        );
+
+        // resume.
+        List<BatchResult> results = inserter.insertResumable(
+                "TEST_INSERT", source, new H2ColumnConverter(), 10, 1, checkpointFile);
+
+        assertAll(
+                () -> assertEquals(1, results.size()),
+                () -> assertEquals(1, results.get(0).affectedRows()),
+                () -> assertFalse(Files.exists(checkpointFile))
+        );
+        try (PreparedStatement st = this.connection.prepareStatement("SELECT Column1 FROM TEST_INSERT ORDER BY id")) {
+            try (ResultSet rs = st.executeQuery()) {
+                assertTrue(rs.next());
+                assertEquals("line1", rs.getString(1));
+                assertTrue(rs.next());
+                assertEquals("line2", rs.getString(1));
+                assertFalse(rs.next());
+            }
+        }
+    }
+
+    @Test
+    void insertBatchWithListener() throws Exception {
+        LoadMetrics metrics = new LoadMetrics();
+        Path file = Paths.get(ClassLoader.getSystemResource("TableInserterTest.tsv").toURI());
+
+        // Exec
+        TableInserter inserter = new TableInserter(this.connection, "", TableSchemaCache.getInstance(), metrics);
+        inserter.insertBatch("TEST_INSERT", new TsvDataSource(file, "UTF-8"), new H2ColumnConverter(), 1);
+
+        // checking
+        LoadStats stats = metrics.tables().get("TEST_INSERT");
+        long[] histogram = metrics.latencyHistogram("TEST_INSERT");
+        assertAll(
+                () -> assertEquals(2, stats.rows),
+                () -> assertEquals(2, stats.batches),
+                () -> assertEquals(Files.size(file), stats.bytes),
+                () -> assertTrue(stats.elapsedNanos >= stats.executeNanos),
+                () -> assertEquals(2, Arrays.stream(histogram).sum()),
+                () -> assertTrue(metrics.latencyPercentile("TEST_INSERT", 50) > 0)
+        );
+    }
+
+    @Test
+    void sync() throws Exception {
+        TableInserter inserter = new TableInserter(this.connection, "");
+        inserter.insert(
+                "TEST_INSERT",
+                new TsvDataSource(Paths.get(ClassLoader.getSystemResource("TableInserterTest.tsv").toURI()), "UTF-8"),
+                new H2ColumnConverter());
+        try (Statement st = this.connection.createStatement()) {
+            st.execute("INSERT INTO TEST_INSERT (id, Column1) VALUES (10, 'removed')");
+        }
+        TsvDataSource source =
+                new TsvDataSource(Paths.get(ClassLoader.getSystemResource("TableInserterSyncTest.tsv").toURI()), "UTF-8");
+
+        // Exec
+        SyncResult result = inserter.sync("TEST_INSERT", source, new H2ColumnConverter(), 100, true);
+
+        // checking
+        assertAll(
+                () -> assertEquals(1, result.inserted),
+                () -> assertEquals(1, result.updated),
+                () -> assertEquals(1, result.deleted),
+                () -> assertEquals(1, result.unchanged),
+                () -> assertEquals(3, result.batches.size())
+        );
+        try (PreparedStatement st = this.connection.prepareStatement("SELECT id, Column2 FROM TEST_INSERT ORDER BY id")) {
+            try (ResultSet rs = st.executeQuery()) {
+                assertTrue(rs.next());
+                assertEquals(65535, rs.getInt(2));
+                assertTrue(rs.next());
+                assertEquals(4096, rs.getInt(2));
+                assertTrue(rs.next());
+                assertEquals(3, rs.getLong(1));
+                assertFalse(rs.next());
+            }
+        }
+
+        // no difference.
+        SyncResult again = inserter.sync("TEST_INSERT", source, new H2ColumnConverter(), 100, true);
+        assertAll(
+                () -> assertEquals(3, again.unchanged),
+                () -> assertTrue(again.batches.isEmpty())
+        );
+    }
+}
@@ -0,0 +1,102 @@
+package net.white.azalea.utils.database;
+
+import net.white.azalea.utils.database.converters.H2ColumnConverter;
+import net.white.azalea.utils.database.impl.TsvDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.*;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TableResetTest {
+
+    private Connection connection;
+    private Path parentFile;
+    private Path childFile;
+
+    @BeforeAll
+    static void beforeClass() throws Exception {
+        Class.forName("org.h2.Driver");
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        this.connection = DriverManager.getConnection("jdbc:h2:mem:reset", "sa", "");
+        try (Statement statement = this.connection.createStatement()) {
+            statement.execute("CREATE TABLE PARENT (id BIGINT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(32))");
+            statement.execute("CREATE TABLE CHILD (id BIGINT AUTO_INCREMENT PRIMARY KEY, parent_id BIGINT, " +
+                    "FOREIGN KEY (parent_id) REFERENCES PARENT(id))");
+            statement.execute("CREATE TABLE OTHER (id INTEGER PRIMARY KEY)");
+            statement.execute("INSERT INTO PARENT (name) VALUES ('base')");
+            statement.execute("INSERT INTO OTHER (id) VALUES (1)");
+        }
+
+        this.parentFile = Files.createTempFile("TableResetTest", ".tsv");
+        Files.write(this.parentFile, "name\nparent1\nparent2\n".getBytes(StandardCharsets.UTF_8));
+        this.childFile = Files.createTempFile("TableResetTest", ".tsv");
+        Files.write(this.childFile, "parent_id\n1\n2\n".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        this.connection.close();
+        Files.delete(this.parentFile);
+        Files.delete(this.childFile);
+    }
+
+    @Test
+    void reset() throws Exception {
+        TableReset reset = new TableReset(this.connection, "");
+        this.load(reset);
+
+        // Exec
+        reset.reset();
+
+        // checking
+        assertAll(
+                () -> assertEquals(0, this.count("PARENT")),
+                () -> assertEquals(0, this.count("CHILD")),
+                () -> assertEquals(1, this.count("OTHER")),
+                () -> assertTrue(reset.tables().isEmpty())
+        );
+    }
+
+    @Test
+    void resetHighWaterMark() throws Exception {
+        TableReset reset = new TableReset(this.connection, "", TableReset.Mode.HIGH_WATER_MARK);
+        this.load(reset);
+        assertEquals(Arrays.asList("PARENT", "CHILD"), reset.tables());
+
+        // Exec
+        reset.reset();
+
+        // checking
+        assertAll(
+                () -> assertEquals(1, this.count("PARENT")),
+                () -> assertEquals(0, this.count("CHILD")),
+                () -> assertEquals(1, this.count("OTHER"))
+        );
+    }
+
+    private void load(TableReset reset) throws Exception {
+        TableInserter inserter = new TableInserter(this.connection, "", TableSchemaCache.getInstance(), reset);
+        H2ColumnConverter binder = new H2ColumnConverter();
+        inserter.insertBatch("PARENT", new TsvDataSource(this.parentFile, "UTF-8"), binder, 100);
+        inserter.insertBatch("CHILD", new TsvDataSource(this.childFile, "UTF-8"), binder, 100);
+    }
+
+    private int count(String table) throws SQLException {
+        try (Statement st = this.connection.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
@@ -61,4 +61,39 @@ class TableSchemaCacheTest {
                 () -> assertEquals(-5, columns.get(0).dataType)
         );
     }
-}
\ No newline at end of file
+
+    @Test
+    void getTableDefinitionBySchema() throws Exception {
+        try (Statement statement = this.connection.createStatement()) {
+            statement.execute("CREATE SCHEMA OTHER_SCHEMA");
+            statement.execute("CREATE TABLE OTHER_SCHEMA.TEST_SCHEMA_CACHE (id BIGINT, Column1 VARCHAR(32))");
+        }
+
+        TableSchemaCache cache = new TableSchemaCache();
+        TableDefinition publicTable = cache.getTableDefinition(this.connection, "", "TEST_SCHEMA_CACHE");
+        TableDefinition otherTable = cache.getTableDefinition(this.connection, "OTHER_SCHEMA", "TEST_SCHEMA_CACHE");
+
+        assertAll(
+                () -> assertEquals(4, publicTable.columnDefinitions.size()),
+                () -> assertEquals(2, otherTable.columnDefinitions.size()),
+                () -> assertSame(otherTable, cache.getTableDefinition(this.connection, "other_schema", "test_schema_cache"))
+        );
+    }
+
+    @Test
+    void prefetchAndInvalidate() throws Exception {
+        TableSchemaCache cache = new TableSchemaCache();
+        assertTrue(cache.prefetch(this.connection, null, "PUBLIC") >= 1);
+
+        try (Statement statement = this.connection.createStatement()) {
+            statement.execute("ALTER TABLE TEST_SCHEMA_CACHE ADD COLUMN Column4 INTEGER");
+        }
+
+        // cached by prefetch.
+        assertEquals(4, cache.getTableDefinition(this.connection, null, "PUBLIC", "TEST_SCHEMA_CACHE").columnDefinitions.size());
+
+        // reload after invalidation.
+        cache.invalidate(null, "PUBLIC", "TEST_SCHEMA_CACHE");
+        assertEquals(5, cache.getTableDefinition(this.connection, null, "PUBLIC", "TEST_SCHEMA_CACHE").columnDefinitions.size());
+    }
+}
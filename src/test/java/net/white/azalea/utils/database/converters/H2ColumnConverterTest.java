@@ -0,0 +1,63 @@
+package net.white.azalea.utils.database.converters;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Date;
+import java.util.TimeZone;
+
+import static java.sql.Types.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class H2ColumnConverterTest {
+
+    @Test
+    void conversionAsDate() throws Exception {
+        H2ColumnConverter converter = new H2ColumnConverter();
+        SimpleDateFormat datetimeFormat = new SimpleDateFormat("yyyy/MM/dd HH:mm:ss");
+
+        assertAll(
+                () -> assertEquals(
+                        datetimeFormat.parse("2019/02/25 13:11:22"),
+                        converter.conversion(TIMESTAMP, "TIMESTAMP", "2019/02/25 13:11:22")),
+                () -> assertEquals(
+                        new SimpleDateFormat("yyyy/MM/dd").parse("2019/02/01"),
+                        converter.conversion(DATE, "DATE", "2019/02/01")),
+                () -> assertEquals(
+                        new SimpleDateFormat("HH:mm:ss").parse("13:54:22"),
+                        converter.conversion(TIME, "TIME", "13:54:22")),
+                // not fixed width, and lenient.
+                () -> assertEquals(
+                        datetimeFormat.parse("2019/2/1 3:04:05"),
+                        converter.conversion(TIMESTAMP, "TIMESTAMP", "2019/2/1 3:04:05")),
+                () -> assertEquals(
+                        datetimeFormat.parse("2019/03/02 00:00:00"),
+                        converter.conversion(TIMESTAMP, "TIMESTAMP", "2019/02/30 00:00:00")),
+                () -> assertThrows(IOException.class, () -> converter.conversion(DATE, "DATE", "not a date"))
+        );
+    }
+
+    @Test
+    void conversionAsJavaTime() throws Exception {
+        H2ColumnConverter converter = new H2ColumnConverter(
+                TimeZone.getDefault(), "yyyy-MM-dd'T'HH:mm:ss.SSS", "yyyyMMdd", "HH:mm", true);
+
+        assertAll(
+                () -> assertEquals(
+                        LocalDateTime.of(2019, 2, 25, 13, 11, 22, 123_000_000),
+                        converter.conversion(TIMESTAMP, "TIMESTAMP", "2019-02-25T13:11:22.123")),
+                () -> assertEquals(
+                        LocalDate.of(2019, 2, 1),
+                        converter.conversion(DATE, "DATE", "20190201")),
+                () -> assertEquals(
+                        LocalTime.of(13, 54),
+                        converter.conversion(TIME, "TIME", "13:54")),
+                () -> assertTrue(converter.conversion(DATE, "DATE", "20190201") instanceof LocalDate),
+                () -> assertFalse(converter.conversion(DATE, "DATE", "20190201") instanceof Date)
+        );
+    }
+}
@@ -0,0 +1,119 @@
+package net.white.azalea.utils.database.impl;
+
+import net.white.azalea.utils.database.FixtureCache;
+import net.white.azalea.utils.database.TableInserter;
+import net.white.azalea.utils.database.TableSchemaCache;
+import net.white.azalea.utils.database.converters.H2ColumnConverter;
+import net.white.azalea.utils.database.schema.TableDefinition;
+import org.apache.commons.codec.binary.Hex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompiledTsvDataSourceTest {
+
+    private Connection connection;
+    private Path file;
+    private Path compiled;
+
+    @BeforeAll
+    static void beforeClass() throws Exception {
+        Class.forName("org.h2.Driver");
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        this.connection = DriverManager.getConnection("jdbc:h2:mem:compiled", "sa", "");
+        try (Statement statement = this.connection.createStatement()) {
+            statement.execute("CREATE TABLE TEST_COMPILED (" +
+                    "id INTEGER, name VARCHAR(32), price DECIMAL(10,2), flag BOOLEAN, created TIMESTAMP, data BINARY(4))");
+        }
+
+        StringBuilder builder = new StringBuilder("id\tname\tprice\tflag\tcreated\tdata\n");
+        for (int i = 0; i < 5000; i++) {
+            builder.append(i).append("\tname").append(i).append('\t').append(i).append(".25\t")
+                    .append(i % 2 == 0).append("\t2019/02/25 13:11:22\t0a0b0c0d\n");
+        }
+        // short row.
+        builder.append("5000\tshort\n");
+        this.file = Files.createTempFile("CompiledTsvDataSourceTest", ".tsv");
+        Files.write(this.file, builder.toString().getBytes(StandardCharsets.UTF_8));
+        this.compiled = Files.createTempFile("CompiledTsvDataSourceTest", ".bin");
+        Files.delete(this.compiled);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        this.connection.close();
+        Files.delete(this.file);
+        Files.deleteIfExists(this.compiled);
+    }
+
+    @Test
+    void insertBatch() throws Exception {
+        TableInserter inserter = new TableInserter(this.connection, "");
+        H2ColumnConverter binder = new H2ColumnConverter();
+        CompiledTsvDataSource source = new CompiledTsvDataSource(this.file, "UTF-8", this.compiled);
+
+        // Exec
+        inserter.insertBatch("TEST_COMPILED", source, binder, 1000);
+
+        // checking
+        TableDefinition tableDef = TableSchemaCache.getInstance()
+                .getTableDefinition(this.connection, null, "", "TEST_COMPILED");
+        String key = CompiledTsvDataSource.readKey(this.compiled);
+        List<String> compiledRows = this.rows();
+        assertAll(
+                () -> assertEquals(FixtureCache.key(tableDef, source, binder), key),
+                () -> assertEquals(5001, compiledRows.size()),
+                () -> assertEquals("1\tname1\t1.25\tfalse\t2019-02-25 13:11:22.0\t0a0b0c0d\t", compiledRows.get(1)),
+                () -> assertEquals("5000\tshort\tnull\tnull\tnull\tnull\t", compiledRows.get(5000))
+        );
+
+        // same rows as TSV.
+        try (Statement st = this.connection.createStatement()) {
+            st.executeUpdate("DELETE FROM TEST_COMPILED");
+        }
+        inserter.insertBatch("TEST_COMPILED", new TsvDataSource(this.file, "UTF-8"), binder, 1000);
+        assertEquals(compiledRows, this.rows());
+
+        // recompile changed TSV.
+        Files.write(this.file, "id\tname\n1\tchanged\n".getBytes(StandardCharsets.UTF_8));
+        try (Statement st = this.connection.createStatement()) {
+            st.executeUpdate("DELETE FROM TEST_COMPILED");
+        }
+        inserter.insertBatch("TEST_COMPILED", source, binder, 1000);
+        assertAll(
+                () -> assertNotEquals(key, CompiledTsvDataSource.readKey(this.compiled)),
+                () -> assertEquals(1, this.rows().size())
+        );
+    }
+
+    private List<String> rows() throws SQLException {
+        List<String> rows = new ArrayList<>();
+        try (Statement st = this.connection.createStatement();
+             ResultSet rs = st.executeQuery(
+                     "SELECT id, name, price, flag, created, data FROM TEST_COMPILED ORDER BY id")) {
+            while (rs.next()) {
+                StringBuilder row = new StringBuilder();
+                for (int i = 1; i <= 5; i++) {
+                    row.append(rs.getObject(i)).append('\t');
+                }
+                byte[] data = rs.getBytes(6);
+                row.append(data == null ? null : Hex.encodeHexString(data)).append('\t');
+                rows.add(row.toString());
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,92 @@
+package net.white.azalea.utils.database.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedTsvReaderTest {
+
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        this.file = Files.createTempFile("mapped", ".tsv");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        Files.deleteIfExists(this.file);
+    }
+
+    @Test
+    void tokenizeAcrossWindows() throws Exception {
+        Files.write(this.file, "a\tbb\t\r\n\r\n\t\t\nあいう\t \tlong-long-value\nlast\tline".getBytes(StandardCharsets.UTF_8));
+
+        // small window forces remapping and expansion.
+        FileChannel channel = FileChannel.open(this.file, StandardOpenOption.READ);
+        try (MappedTsvReader reader = new MappedTsvReader(channel, StandardCharsets.UTF_8, 0, -1, 4)) {
+            assertTrue(reader.nextLine());
+            assertArrayEquals(new String[]{"a", "bb"}, reader.cells());
+
+            assertTrue(reader.nextLine());
+            assertAll(
+                    () -> assertEquals(3, reader.cellCount()),
+                    () -> assertEquals("あいう", reader.cell(0)),
+                    () -> assertTrue(reader.isBlank(1)),
+                    () -> assertFalse(reader.isBlank(2)),
+                    () -> assertEquals("long-long-value", reader.cell(2))
+            );
+
+            assertTrue(reader.nextLine());
+            assertArrayEquals(new String[]{"last", "line"}, reader.cells());
+            assertFalse(reader.nextLine());
+        }
+    }
+
+    @Test
+    void sharedValues() throws Exception {
+        StringBuilder tsv = new StringBuilder();
+        for (int i = 0; i < CellDictionary.MAX_ENTRIES + 10; i++) {
+            tsv.append(i % 2 == 0 ? "active" : "ストップ").append('\t').append(i).append('\n');
+        }
+        Files.write(this.file, tsv.toString().getBytes(StandardCharsets.UTF_8));
+
+        try (MappedTsvReader reader = new MappedTsvReader(this.file, StandardCharsets.UTF_8)) {
+            reader.nextLine();
+            String[] row1 = reader.values();
+            reader.nextLine();
+            String[] row2 = reader.values();
+            reader.nextLine();
+            String[] row3 = reader.values();
+
+            // unique column turns off dictionary.
+            String[] last = null;
+            while (reader.nextLine()) {
+                last = reader.values();
+            }
+            String[] lastRow = last;
+            assertAll(
+                    () -> assertEquals("active", row1[0]),
+                    () -> assertEquals("ストップ", row2[0]),
+                    () -> assertSame(row1[0], row3[0]),
+                    () -> assertEquals("2", row3[1]),
+                    () -> assertEquals(String.valueOf(CellDictionary.MAX_ENTRIES + 9), lastRow[1])
+            );
+        }
+    }
+
+    @Test
+    void emptyFile() throws Exception {
+        try (MappedTsvReader reader = new MappedTsvReader(this.file, StandardCharsets.UTF_8)) {
+            assertFalse(reader.nextLine());
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package net.white.azalea.utils.database.impl;
+
+import net.white.azalea.utils.database.DataCursor;
+import net.white.azalea.utils.database.Row;
+import net.white.azalea.utils.database.RowHeader;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapRowStoreTest {
+
+    @Test
+    void openRowCursor() throws IOException {
+        RowHeader header = new RowHeader("column1", "column2");
+        try (OffHeapRowStore store = new OffHeapRowStore(1024 * 1024)) {
+            store.add(new Row(header, new String[]{"value1", null}));
+            store.add(new Row(header, new String[]{"値2", "222"}));
+            store.add(new Row(new RowHeader("column1"), new String[]{"value3"}));
+
+            try (DataCursor<Row> cursor = store.openRowCursor()) {
+                Row row1 = cursor.next();
+                Row row2 = cursor.next();
+                Row row3 = cursor.next();
+                assertFalse(cursor.hasNext());
+
+                assertAll(
+                        () -> assertSame(row1.header, row2.header),
+                        () -> assertEquals(header, row1.header),
+                        () -> assertEquals("value1", row1.get("column1")),
+                        () -> assertNull(row1.get("column2")),
+                        () -> assertEquals("値2", row2.get("column1")),
+                        () -> assertEquals(1, row3.header.size()),
+                        () -> assertEquals("value3", row3.get(0)),
+                        () -> assertEquals(0, store.spilledBytes()),
+                        () -> assertThrows(IllegalStateException.class, () -> store.add(row1))
+                );
+            }
+        }
+    }
+
+    @Test
+    void spill() throws IOException {
+        RowHeader header = new RowHeader("id", "name");
+        try (OffHeapRowStore store = new OffHeapRowStore(100)) {
+            for (int i = 0; i < 1000; i++) {
+                store.add(new Row(header, new String[]{String.valueOf(i), "名前" + i}));
+            }
+
+            // read twice, eg. retry.
+            for (int n = 0; n < 2; n++) {
+                List<Map<String, String>> rows = store.loadDataSource();
+                assertAll(
+                        () -> assertEquals(1000, rows.size()),
+                        () -> assertEquals("0", rows.get(0).get("id")),
+                        () -> assertEquals("名前500", rows.get(500).get("name")),
+                        () -> assertEquals("999", rows.get(999).get("id"))
+                );
+            }
+            assertTrue(store.spilledBytes() > 0);
+
+            store.clear();
+            store.add(new Row(header, new String[]{"1000", "last"}));
+            List<String> ids = new ArrayList<>();
+            try (DataCursor<Row> cursor = store.openRowCursor()) {
+                while (cursor.hasNext()) {
+                    ids.add(cursor.next().get("id"));
+                }
+            }
+            assertAll(
+                    () -> assertEquals(1, store.size()),
+                    () -> assertEquals(0, store.spilledBytes()),
+                    () -> assertEquals("[1000]", ids.toString())
+            );
+        }
+    }
+}
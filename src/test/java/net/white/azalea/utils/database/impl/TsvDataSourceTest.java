@@ -1,11 +1,19 @@
 package net.white.azalea.utils.database.impl;
 
+import net.white.azalea.utils.database.DataCursor;
 import net.white.azalea.utils.database.DataSource;
+import net.white.azalea.utils.database.Row;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
-import java.util.List;
-import java.util.Map;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -28,4 +36,123 @@ class TsvDataSourceTest {
                 () -> assertEquals(result.get(1).get("column3"), "1.41421356")
         );
     }
-}
\ No newline at end of file
+
+    @Test
+    void openCursor() throws IOException {
+
+        DataSource src = new TsvDataSource("src/test/resources/TsvDataSource.tsv");
+        try (DataCursor<Map<String, String>> cursor = src.openCursor()) {
+            assertTrue(cursor.hasNext());
+            Map<String, String> row1 = cursor.next();
+            assertTrue(cursor.hasNext());
+            Map<String, String> row2 = cursor.next();
+            assertFalse(cursor.hasNext());
+
+            assertAll(
+                    () -> assertEquals("value1", row1.get("column1")),
+                    () -> assertEquals("3.14159", row1.get("column3")),
+                    () -> assertEquals("value2", row2.get("column1")),
+                    () -> assertEquals("1.41421356", row2.get("column3")),
+                    () -> assertThrows(NoSuchElementException.class, cursor::next)
+            );
+        }
+    }
+
+    @Test
+    void openRowCursor() throws IOException {
+
+        DataSource src = new TsvDataSource("src/test/resources/TsvDataSource.tsv");
+        try (DataCursor<Row> cursor = src.openRowCursor()) {
+            Row row1 = cursor.next();
+            Row row2 = cursor.next();
+            assertFalse(cursor.hasNext());
+
+            assertAll(
+                    () -> assertSame(row1.header, row2.header),
+                    () -> assertEquals(3, row1.header.size()),
+                    () -> assertEquals("column2", row1.header.name(1)),
+                    () -> assertEquals("11", row1.get(1)),
+                    () -> assertEquals("222", row2.get("column2")),
+                    () -> assertNull(row2.get("unknown"))
+            );
+        }
+    }
+
+    @Test
+    void openRowCursorParallel() throws IOException {
+
+        // large enough to split into multiple ranges.
+        Path file = Files.createTempFile("TsvDataSourceTest", ".tsv");
+        try {
+            StringBuilder builder = new StringBuilder("id\tname\tvalue\n");
+            for (int i = 0; i < 20000; i++) {
+                builder.append(i).append("\tname").append(i).append(i % 3 == 0 ? "\t\r\n" : "\tvalue\n");
+            }
+            Files.write(file, builder.toString().getBytes(StandardCharsets.UTF_8));
+
+            List<String> sequential = readIds(new TsvDataSource(file, "UTF-8"));
+            List<String> ordered = readIds(new TsvDataSource(file, "UTF-8", 4, true));
+            List<String> unordered = readIds(new TsvDataSource(file, "UTF-8", 4, false));
+            Collections.sort(unordered, Comparator.comparingInt(Integer::parseInt));
+
+            assertAll(
+                    () -> assertEquals(20000, sequential.size()),
+                    () -> assertEquals(sequential, ordered),
+                    () -> assertEquals(sequential, unordered)
+            );
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void openRowCursorCompressed() throws IOException {
+
+        Path file = Files.createTempFile("TsvDataSourceTest", ".tsv");
+        Path gzip = Files.createTempFile("TsvDataSourceTest", ".tsv.gz");
+        Path zip = Files.createTempFile("TsvDataSourceTest", ".zip");
+        try {
+            StringBuilder builder = new StringBuilder("id\tname\tvalue\n");
+            for (int i = 0; i < 20000; i++) {
+                builder.append(i).append("\tname").append(i).append(i % 3 == 0 ? "\t\r\n" : "\tvalue\n");
+            }
+            byte[] bytes = builder.toString().getBytes(StandardCharsets.UTF_8);
+            Files.write(file, bytes);
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(gzip))) {
+                out.write(bytes);
+            }
+            try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(zip))) {
+                out.putNextEntry(new ZipEntry("other.txt"));
+                out.write("other".getBytes(StandardCharsets.UTF_8));
+                out.putNextEntry(new ZipEntry("tables/test.tsv"));
+                out.write(bytes);
+            }
+
+            List<String> plain = readIds(new TsvDataSource(file, "UTF-8"));
+            assertAll(
+                    () -> assertEquals(plain, readIds(new TsvDataSource(gzip, "UTF-8"))),
+                    () -> assertEquals(plain, readIds(new TsvDataSource(gzip, "UTF-8", true))),
+                    () -> assertEquals(Arrays.asList("other.txt", "tables/test.tsv"), TsvDataSource.entries(zip)),
+                    () -> assertEquals(plain, readIds(new TsvDataSource(zip, "tables/test.tsv", "UTF-8"))),
+                    () -> assertEquals(plain, readIds(new TsvDataSource(zip, "tables/test.tsv", "UTF-8", true))),
+                    () -> assertThrows(IOException.class, () -> readIds(new TsvDataSource(zip, "none.tsv", "UTF-8")))
+            );
+        } finally {
+            Files.delete(file);
+            Files.delete(gzip);
+            Files.delete(zip);
+        }
+    }
+
+    private static List<String> readIds(DataSource src) throws IOException {
+        List<String> ids = new ArrayList<>();
+        try (DataCursor<Row> cursor = src.openRowCursor()) {
+            while (cursor.hasNext()) {
+                Row row = cursor.next();
+                assertEquals(Integer.parseInt(row.get("id")) % 3 == 0 ? null : "value", row.get("value"));
+                ids.add(row.get("id"));
+            }
+        }
+        return ids;
+    }
+}
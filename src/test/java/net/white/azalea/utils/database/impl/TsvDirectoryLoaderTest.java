@@ -0,0 +1,101 @@
+package net.white.azalea.utils.database.impl;
+
+import net.white.azalea.utils.database.BatchResult;
+import net.white.azalea.utils.database.TableDependencies;
+import net.white.azalea.utils.database.converters.H2ColumnConverter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.*;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TsvDirectoryLoaderTest {
+
+    private static final String URL = "jdbc:h2:mem:directory;DB_CLOSE_DELAY=-1";
+
+    private Connection connection;
+    private Path directory;
+
+    @BeforeAll
+    static void beforeClass() throws Exception {
+        Class.forName("org.h2.Driver");
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        this.connection = DriverManager.getConnection(URL, "sa", "");
+        try (Statement statement = this.connection.createStatement()) {
+            statement.execute("CREATE TABLE PARENT (id INTEGER PRIMARY KEY, name VARCHAR(32))");
+            statement.execute("CREATE TABLE CHILD (id INTEGER PRIMARY KEY, parent_id INTEGER, " +
+                    "FOREIGN KEY (parent_id) REFERENCES PARENT(id))");
+            statement.execute("CREATE TABLE GRANDCHILD (id INTEGER PRIMARY KEY, child_id INTEGER, parent_id INTEGER, " +
+                    "FOREIGN KEY (child_id) REFERENCES CHILD(id), FOREIGN KEY (parent_id) REFERENCES PARENT(id))");
+            statement.execute("CREATE TABLE OTHER (id INTEGER PRIMARY KEY)");
+        }
+
+        this.directory = Files.createTempDirectory("TsvDirectoryLoaderTest");
+        write("grandchild.tsv", "id\tchild_id\tparent_id\n1\t1\t1\n2\t2\t1\n");
+        write("child.tsv", "id\tparent_id\n1\t1\n2\t1\n");
+        write("parent.tsv", "id\tname\n1\tparent1\n");
+        write("other.tsv", "id\n1\n2\n3\n");
+        write("readme.txt", "not a table");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        try (Statement statement = this.connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+        this.connection.close();
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(this.directory)) {
+            for (Path file : files) Files.delete(file);
+        }
+        Files.delete(this.directory);
+    }
+
+    @Test
+    void levels() throws Exception {
+        List<List<String>> levels = TableDependencies.levels(
+                this.connection, "", Arrays.asList("grandchild", "child", "parent", "other"));
+
+        assertEquals(Arrays.asList(
+                Arrays.asList("PARENT", "OTHER"),
+                Collections.singletonList("CHILD"),
+                Collections.singletonList("GRANDCHILD")
+        ), levels);
+    }
+
+    @Test
+    void load() throws Exception {
+        TsvDirectoryLoader loader = new TsvDirectoryLoader(() -> DriverManager.getConnection(URL, "sa", ""), "", 2);
+        Map<String, List<BatchResult>> results = loader.load(this.directory, "UTF-8", new H2ColumnConverter(), 100);
+
+        assertAll(
+                () -> assertEquals(Arrays.asList("OTHER", "PARENT", "CHILD", "GRANDCHILD"), new ArrayList<>(results.keySet())),
+                () -> assertEquals(3, results.get("OTHER").get(0).affectedRows()),
+                () -> assertEquals(2, count("GRANDCHILD"))
+        );
+    }
+
+    private void write(String name, String contents) throws IOException {
+        Files.write(this.directory.resolve(name), contents.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private int count(String table) throws SQLException {
+        try (Statement st = this.connection.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
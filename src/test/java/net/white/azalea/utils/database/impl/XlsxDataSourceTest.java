@@ -0,0 +1,100 @@
+package net.white.azalea.utils.database.impl;
+
+import net.white.azalea.utils.database.DataCursor;
+import net.white.azalea.utils.database.Row;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class XlsxDataSourceTest {
+
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        this.file = Files.createTempFile("XlsxDataSourceTest", ".xlsx");
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(this.file))) {
+            put(out, "xl/workbook.xml", "<workbook xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\""
+                    + " xmlns:r=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships\">"
+                    + "<sheets><sheet name=\"Users\" sheetId=\"1\" r:id=\"rId1\"/>"
+                    + "<sheet name=\"Empty\" sheetId=\"2\" r:id=\"rId2\"/></sheets></workbook>");
+            put(out, "xl/_rels/workbook.xml.rels", "<Relationships>"
+                    + "<Relationship Id=\"rId1\" Target=\"worksheets/sheet1.xml\"/>"
+                    + "<Relationship Id=\"rId2\" Target=\"/xl/worksheets/sheet2.xml\"/></Relationships>");
+            put(out, "xl/sharedStrings.xml", "<sst>"
+                    + "<si><t>id</t></si><si><t>name</t></si><si><t>created</t></si><si><t>score</t></si>"
+                    + "<si><r><t>Ali</t></r><r><t>ce</t></r><rPh><t>ありす</t></rPh></si></sst>");
+            put(out, "xl/styles.xml", "<styleSheet><numFmts>"
+                    + "<numFmt numFmtId=\"164\" formatCode=\"yyyy\\-mm\\-dd\\ hh:mm\"/></numFmts>"
+                    + "<cellStyleXfs><xf numFmtId=\"14\"/></cellStyleXfs>"
+                    + "<cellXfs><xf numFmtId=\"0\"/><xf numFmtId=\"14\"/><xf numFmtId=\"164\"/></cellXfs></styleSheet>");
+            put(out, "xl/worksheets/sheet1.xml", "<worksheet><sheetData>"
+                    + "<row r=\"1\"><c r=\"A1\" t=\"s\"><v>0</v></c><c r=\"B1\" t=\"s\"><v>1</v></c>"
+                    + "<c r=\"C1\" t=\"s\"><v>2</v></c><c r=\"D1\" t=\"s\"><v>3</v></c></row>"
+                    + "<row r=\"2\"><c r=\"A2\"><v>1</v></c><c r=\"B2\" t=\"s\"><v>4</v></c>"
+                    + "<c r=\"C2\" s=\"1\"><v>43466</v></c><c r=\"D2\"><v>3.14</v></c></row>"
+                    + "<row r=\"3\"/>"
+                    + "<row r=\"4\"><c r=\"A4\"><v>2</v></c><c r=\"B4\" t=\"inlineStr\"><is><t>Bob</t></is></c>"
+                    + "<c r=\"C4\" s=\"2\"><v>43466.5</v></c></row>"
+                    + "</sheetData></worksheet>");
+            put(out, "xl/worksheets/sheet2.xml", "<worksheet><sheetData/></worksheet>");
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(this.file);
+    }
+
+    @Test
+    void sheets() throws IOException {
+        assertEquals(Arrays.asList("Users", "Empty"), XlsxDataSource.sheets(this.file));
+    }
+
+    @Test
+    void openRowCursor() throws IOException {
+        try (DataCursor<Row> cursor = new XlsxDataSource(this.file).openRowCursor()) {
+            Row row1 = cursor.next();
+            Row row2 = cursor.next();
+            assertFalse(cursor.hasNext());
+
+            assertAll(
+                    () -> assertEquals(4, row1.header.size()),
+                    () -> assertEquals("1", row1.get("id")),
+                    () -> assertEquals("Alice", row1.get("name")),
+                    () -> assertEquals("2019/01/01", row1.get("created")),
+                    () -> assertEquals("3.14", row1.get("score")),
+                    () -> assertEquals(3, row2.header.size()),
+                    () -> assertEquals("Bob", row2.get("name")),
+                    () -> assertEquals("2019/01/01 12:00:00", row2.get("created"))
+            );
+        }
+    }
+
+    @Test
+    void loadDataSource() throws IOException {
+        List<Map<String, String>> empty = new XlsxDataSource(this.file, "Empty").loadDataSource();
+        assertAll(
+                () -> assertTrue(empty.isEmpty()),
+                () -> assertThrows(IOException.class, () -> new XlsxDataSource(this.file, "Unknown").openRowCursor())
+        );
+    }
+
+    private static void put(ZipOutputStream out, String name, String xml) throws IOException {
+        out.putNextEntry(new ZipEntry(name));
+        out.write(xml.getBytes(StandardCharsets.UTF_8));
+        out.closeEntry();
+    }
+}